@@ -26,14 +26,19 @@ import com.google.gwt.user.server.rpc.RPC;
 import com.google.gwt.user.server.rpc.RPCRequest;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.handler.codec.MessageToMessageCodec;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpMessage;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpContentDecompressor;
@@ -41,25 +46,33 @@ import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.AsciiString;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.io.StringReader;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -86,6 +99,7 @@ import jolie.StatefulContext;
 import jolie.js.JsUtils;
 import jolie.lang.Constants;
 import jolie.lang.NativeType;
+import jolie.net.http.HttpBodyAggregator;
 import jolie.net.http.HttpUtils;
 import jolie.net.http.MultiPartFormDataParser;
 import jolie.net.ports.Interface;
@@ -122,6 +136,8 @@ public class HttpProtocol extends AsyncCommProtocol
 
 	private static final AsciiString DEFAULT_CONTENT_TYPE = HttpHeaderValues.APPLICATION_OCTET_STREAM; // default content type per RFC 2616#7.2.1
 	private static final String DEFAULT_FORMAT = "xml";
+	// Responses in this format contain the path of a file to send as body
+	private static final String FILE_FORMAT = "file";
 	private static final Map< Integer, String> statusCodeDescriptions = new HashMap<>();
 	private static final Set< Integer> locationRequiredStatusCodes = new HashSet<>();
 
@@ -197,17 +213,28 @@ public class HttpProtocol extends AsyncCommProtocol
 		statusCodeDescriptions.put( 511, "Network Authentication Required" );
 	}
 
+	@Override
+	public void initialize( StatefulContext ctx )
+	{
+		interpreter = ctx.interpreter();
+	}
+
 	@Override
 	public void setupPipeline( ChannelPipeline pipeline )
 	{
 		if (inInputPort) {
 			pipeline.addLast( new HttpServerCodec() );
-			pipeline.addLast( new HttpContentCompressor() );
+			pipeline.addLast( new FileAwareContentCompressor() );
+			pipeline.addLast( new ChunkedWriteHandler() );
 		} else {
 			pipeline.addLast( new HttpClientCodec() );
 			pipeline.addLast( new HttpContentDecompressor() );
 		}
-		pipeline.addLast( new HttpObjectAggregator( 65536 ) );
+		// The limit is read from the port configuration, as declared
+		final StatefulContext initContext = interpreter.initContext();
+		pipeline.addLast( new HttpBodyAggregator(
+			() -> HttpUtils.maxBodySize( configuration( initContext ) )
+		) );
 		pipeline.addLast( new HttpCommMessageCodec() );
 	}
 
@@ -217,19 +244,45 @@ public class HttpProtocol extends AsyncCommProtocol
 		@Override
 		protected void encode( ChannelHandlerContext ctx, StatefulMessage message, List<Object> out ) throws Exception
 		{
-			((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( message.context() );
-			FullHttpMessage msg = buildHttpMessage( message );
-			out.add( msg );
+			refreshConfiguration();
+			StatefulContext.setCurrentContext( message.context() );
+			String format = send_getFormat( message.context() );
+			if ( inInputPort && FILE_FORMAT.equals( format ) && !message.message().isFault() ) {
+				send_writeFile( ctx, message, out );
+			} else {
+				out.add( buildHttpMessage( message, format ) );
+			}
 		}
 
 		@Override
 		protected void decode( ChannelHandlerContext ctx, FullHttpMessage msg, List<Object> out ) throws Exception
 		{
+			refreshConfiguration();
 			StatefulMessage message = recv_internal( msg );
 			out.add( message );
 		}
 	}
 
+	// The head of a response whose body is written straight from a file
+	private static class FileResponse extends DefaultHttpResponse
+	{
+		private FileResponse( HttpResponseStatus status )
+		{
+			super( HttpVersion.HTTP_1_1, status );
+		}
+	}
+
+	// File contents are sent as they are, as they can not pass through the compressor
+	private static class FileAwareContentCompressor extends HttpContentCompressor
+	{
+		@Override
+		protected Result beginEncode( HttpResponse headers, String acceptEncoding )
+			throws Exception
+		{
+			return ( headers instanceof FileResponse ) ? null : super.beginEncode( headers, acceptEncoding );
+		}
+	}
+
 	private static class Parameters
 	{
 
@@ -290,6 +343,8 @@ public class HttpProtocol extends AsyncCommProtocol
 	private final DocumentBuilder docBuilder;
 	private final URI uri;
 	private final boolean inInputPort;
+	// Set by initialize, before the pipeline is set up
+	private Interpreter interpreter = null;
 	private MultiPartFormDataParser multiPartFormDataParser = null;
 
 	@Override
@@ -409,6 +464,10 @@ public class HttpProtocol extends AsyncCommProtocol
 	private String encoding = null;
 	private String responseFormat = null;
 	private boolean headRequest = false;
+	// Headers of the last request, for conditional and range requests of files
+	private String requestRange = null;
+	private String requestIfNoneMatch = null;
+	private Long requestIfModifiedSince = null;
 
 	private static void send_appendQuerystring( Value value, StringBuilder headerBuilder )
 		throws IOException
@@ -495,7 +554,7 @@ public class HttpProtocol extends AsyncCommProtocol
 	private static class EncodedContent
 	{
 
-		private ByteArray content = null;
+		private ByteBuf content = null;
 		private AsciiString contentType = DEFAULT_CONTENT_TYPE;
 		private String contentDisposition = "";
 	}
@@ -530,10 +589,10 @@ public class HttpProtocol extends AsyncCommProtocol
 			} catch( TransformerException e ) {
 				throw new IOException( e );
 			}
-			ret.content = new ByteArray( tmpStream.toByteArray() );
+			ret.content = Unpooled.wrappedBuffer( tmpStream.toByteArray() );
 		} else if ( "binary".equals( format ) ) {
 			ret.contentType = HttpHeaderValues.APPLICATION_OCTET_STREAM;
-			ret.content = message.value().byteArrayValue();
+			ret.content = Unpooled.wrappedBuffer( message.value().byteArrayValue().getBytes() );
 		} else if ( "html".equals( format ) ) {
 			ret.contentType = ContentTypes.TEXT_HTML;
 			if ( message.isFault() ) {
@@ -543,9 +602,9 @@ public class HttpProtocol extends AsyncCommProtocol
 				builder.append( "</title></head><body>" );
 				builder.append( message.fault().value().strValue() );
 				builder.append( "</body></html>" );
-				ret.content = new ByteArray( builder.toString().getBytes( charset ) );
+				ret.content = Unpooled.wrappedBuffer( builder.toString().getBytes( charset ) );
 			} else {
-				ret.content = new ByteArray( message.value().strValue().getBytes( charset ) );
+				ret.content = Unpooled.wrappedBuffer( message.value().strValue().getBytes( charset ) );
 			}
 		} else if ( "multipart/form-data".equals( format ) ) {
 			ret.contentType = HttpHeaderValues.MULTIPART_FORM_DATA.concat( new AsciiString( "; boundary=" + BOUNDARY ) );
@@ -589,7 +648,7 @@ public class HttpProtocol extends AsyncCommProtocol
 			}
 			builder.append( "--" + BOUNDARY + "--" );
 			bStream.write( builder.toString().getBytes( charset ) );
-			ret.content = new ByteArray( bStream.toByteArray() );
+			ret.content = Unpooled.wrappedBuffer( bStream.toByteArray() );
 		} else if ( "x-www-form-urlencoded".equals( format ) ) {
 			ret.contentType = HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED;
 			Iterator< Entry< String, ValueVector>> it
@@ -612,19 +671,19 @@ public class HttpProtocol extends AsyncCommProtocol
 					}
 				}
 			}
-			ret.content = new ByteArray( builder.toString().getBytes( charset ) );
+			ret.content = Unpooled.wrappedBuffer( builder.toString().getBytes( charset ) );
 		} else if ( "text/x-gwt-rpc".equals( format ) ) {
 			ret.contentType = ContentTypes.TEXT_GWT_RPC;
 			try {
 				if ( inInputPort ) { // It's a response
 					if ( message.isFault() ) {
-						ret.content = new ByteArray(
+						ret.content = Unpooled.wrappedBuffer(
 							RPC.encodeResponseForFailure( JolieService.class.getMethods()[ 0 ], JolieGWTConverter.jolieToGwtFault( message.fault() ) ).getBytes( charset )
 						);
 					} else {
 						joliex.gwt.client.Value v = new joliex.gwt.client.Value();
 						JolieGWTConverter.jolieToGwtValue( message.value(), v );
-						ret.content = new ByteArray(
+						ret.content = Unpooled.wrappedBuffer(
 							RPC.encodeResponseForSuccess( JolieService.class.getMethods()[ 0 ], v ).getBytes( charset )
 						);
 					}
@@ -636,23 +695,36 @@ public class HttpProtocol extends AsyncCommProtocol
 			}
 		} else if ( "json".equals( format ) ) {
 			ret.contentType = ContentTypes.APPLICATION_JSON;
-			StringBuilder jsonStringBuilder = new StringBuilder();
 			if ( message.isFault() ) {
 				Value error = message.value().getFirstChild( "error" );
 				error.getFirstChild( "code" ).setValue( -32000 );
 				error.getFirstChild( "message" ).setValue( message.fault().faultName() );
 				error.getChildren( "data" ).set( 0, message.fault().value() );
-				JsUtils.faultValueToJsonString( message.value(), getSendType( message ), jsonStringBuilder );
+			}
+			if ( "utf-8".equalsIgnoreCase( charset ) ) {
+				// Serialise straight into the buffer of the message
+				ret.content = Unpooled.buffer();
+				ByteBufOutputStream jsonStream = new ByteBufOutputStream( ret.content );
+				if ( message.isFault() ) {
+					JsUtils.faultValueToJson( message.value(), getSendType( message ), jsonStream );
+				} else {
+					JsUtils.valueToJson( message.value(), true, getSendType( message ), jsonStream );
+				}
 			} else {
-				JsUtils.valueToJsonString( message.value(), true, getSendType( message ), jsonStringBuilder );
+				StringBuilder jsonStringBuilder = new StringBuilder();
+				if ( message.isFault() ) {
+					JsUtils.faultValueToJsonString( message.value(), getSendType( message ), jsonStringBuilder );
+				} else {
+					JsUtils.valueToJsonString( message.value(), true, getSendType( message ), jsonStringBuilder );
+				}
+				ret.content = Unpooled.wrappedBuffer( jsonStringBuilder.toString().getBytes( charset ) );
 			}
-			ret.content = new ByteArray( jsonStringBuilder.toString().getBytes( charset ) );
 		} else if ( "raw".equals( format ) ) {
 			ret.contentType = HttpHeaderValues.TEXT_PLAIN;
 			if ( message.isFault() ) {
-				ret.content = new ByteArray( message.fault().value().strValue().getBytes( charset ) );
+				ret.content = Unpooled.wrappedBuffer( message.fault().value().strValue().getBytes( charset ) );
 			} else {
-				ret.content = new ByteArray( message.value().strValue().getBytes( charset ) );
+				ret.content = Unpooled.wrappedBuffer( message.value().strValue().getBytes( charset ) );
 			}
 		}
 		return ret;
@@ -909,7 +981,7 @@ public class HttpProtocol extends AsyncCommProtocol
 				}
 			}
 
-			headers.add( HttpHeaderNames.CONTENT_LENGTH, encodedContent.content.size() );
+			headers.add( HttpHeaderNames.CONTENT_LENGTH, encodedContent.content.readableBytes() );
 		} else {
 			headers.add( HttpHeaderNames.CONTENT_LENGTH, 0 );
 		}
@@ -926,27 +998,28 @@ public class HttpProtocol extends AsyncCommProtocol
 			}
 			if ( getParameterVector( ctx, Parameters.DEBUG ).first().getFirstChild( "showContent" ).intValue() > 0
 				&& encodedContent.content != null ) {
-				debugSB.append( encodedContent.content.toString( charset ) );
+				debugSB.append( encodedContent.content.toString( Charset.forName( charset ) ) );
 			}
 			ctx.interpreter().logInfo( debugSB.toString() );
 		}
 	}
 
-	public FullHttpMessage buildHttpMessage( StatefulMessage msg )
+	public FullHttpMessage buildHttpMessage( StatefulMessage msg, String format )
 		throws IOException
 	{
 		CommMessage message = msg.message();
 		StatefulContext ctx = msg.context();
 		HttpMethod method = send_getRequestMethod( ctx, msg.message() );
 		String charset = HttpUtils.getCharset( getStringParameter( msg.context(), Parameters.CHARSET, "utf-8" ), null );
-		String format = send_getFormat( ctx );
 		EncodedContent encodedContent = send_encodeContent( ctx, message, method, charset, format );
+		ByteBuf content = encodedContent.content == null
+			? Unpooled.EMPTY_BUFFER : encodedContent.content;
 
 		FullHttpMessage httpMessage;
 		if ( inInputPort ) {
 			// We're responding to a request
 			FullHttpResponse response = new DefaultFullHttpResponse(
-				HttpVersion.HTTP_1_1, send_getResponseStatus( ctx, message ) );
+				HttpVersion.HTTP_1_1, send_getResponseStatus( ctx, message ), content );
 
 			send_appendResponseHeaders( ctx, message, response.headers() );
 			send_appendResponseUserHeader( ctx, message, response.headers() );
@@ -960,7 +1033,7 @@ public class HttpProtocol extends AsyncCommProtocol
 					encodedContent.contentType = ContentTypes.APPLICATION_JSON;
 				}
 			}
-			FullHttpRequest request = new DefaultFullHttpRequest( HttpVersion.HTTP_1_1, method, send_getUri( ctx, message, method, qsFormat ) );
+			FullHttpRequest request = new DefaultFullHttpRequest( HttpVersion.HTTP_1_1, method, send_getUri( ctx, message, method, qsFormat ), content );
 			send_appendRequestHeaders( ctx, message, request.headers() );
 			send_appendRequestUserHeader( ctx, message, request.headers() );
 			httpMessage = request;
@@ -972,7 +1045,6 @@ public class HttpProtocol extends AsyncCommProtocol
 		send_logDebugInfo( ctx, httpMessage.headers(), encodedContent, charset );
 		inputId = message.operationName();
 
-		httpMessage.content().writeBytes( encodedContent.content.getBytes() );
 		//ostream.write( headerBuilder.toString().getBytes( HttpUtils.URL_DECODER_ENC ) );
 		//if ( encodedContent.content != null && !headRequest ) {
 		//	ostream.write( encodedContent.content.getBytes() );
@@ -981,6 +1053,139 @@ public class HttpProtocol extends AsyncCommProtocol
 		return httpMessage;
 	}
 
+	/*
+	 * Returns the first and last byte of a single satisfiable range,
+	 * an empty array for an unsatisfiable range, or null if the Range
+	 * header should be ignored.
+	 */
+	private static long[] send_parseRange( String range, long length )
+	{
+		if ( !range.startsWith( "bytes=" ) || range.indexOf( ',' ) >= 0 ) {
+			return null;
+		}
+		String spec = range.substring( 6 ).trim();
+		int dash = spec.indexOf( '-' );
+		if ( dash < 0 ) {
+			return null;
+		}
+		long first, last;
+		try {
+			if ( dash == 0 ) {
+				// The last n bytes
+				long suffix = Long.parseLong( spec.substring( 1 ) );
+				first = Math.max( 0, length - suffix );
+				last = suffix > 0 ? length - 1 : -1;
+			} else {
+				first = Long.parseLong( spec.substring( 0, dash ) );
+				last = ( dash == spec.length() - 1 ) ? length - 1
+					: Math.min( Long.parseLong( spec.substring( dash + 1 ) ), length - 1 );
+			}
+		} catch( NumberFormatException e ) {
+			return null;
+		}
+		return ( first >= length || first > last ) ? new long[ 0 ] : new long[] { first, last };
+	}
+
+	private boolean send_isNotModified( String etag, long lastModified )
+	{
+		if ( requestIfNoneMatch != null ) {
+			return requestIfNoneMatch.trim().equals( "*" ) || requestIfNoneMatch.contains( etag );
+		}
+		return requestIfModifiedSince != null && lastModified <= requestIfModifiedSince;
+	}
+
+	/*
+	 * Writes a response whose body is the file named by the message value,
+	 * without reading it: plain connections use sendfile, TLS connections
+	 * read it in chunks.
+	 */
+	private void send_writeFile( ChannelHandlerContext channelContext, StatefulMessage msg, List< Object > out )
+		throws IOException
+	{
+		CommMessage message = msg.message();
+		StatefulContext ctx = msg.context();
+		inputId = message.operationName();
+		File file = new File( message.value().strValue() );
+
+		HttpResponseStatus status = send_getResponseStatus( ctx, message );
+		long length = 0, first = 0, last = -1;
+		String etag = null;
+		long lastModified = 0;
+		if ( !file.isFile() || !file.canRead() ) {
+			status = HttpResponseStatus.NOT_FOUND;
+		} else {
+			length = file.length();
+			last = length - 1;
+			// HTTP dates have a precision of seconds
+			lastModified = file.lastModified() / 1000 * 1000;
+			etag = "\"" + Long.toHexString( lastModified ) + '-' + Long.toHexString( length ) + '"';
+			if ( status.equals( HttpResponseStatus.OK ) ) {
+				long[] range = requestRange == null ? null : send_parseRange( requestRange, length );
+				if ( send_isNotModified( etag, lastModified ) ) {
+					status = HttpResponseStatus.NOT_MODIFIED;
+				} else if ( range != null && range.length == 0 ) {
+					status = HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
+				} else if ( range != null ) {
+					status = HttpResponseStatus.PARTIAL_CONTENT;
+					first = range[ 0 ];
+					last = range[ 1 ];
+				}
+			}
+		}
+		boolean withBody = etag != null
+			&& ( status.equals( HttpResponseStatus.OK ) || status.equals( HttpResponseStatus.PARTIAL_CONTENT ) );
+		long count = withBody ? last - first + 1 : 0;
+
+		HttpResponse response = ( withBody && !headRequest )
+			? new FileResponse( status )
+			: new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, status );
+		HttpHeaders headers = response.headers();
+		send_appendResponseHeaders( ctx, message, headers );
+		send_appendResponseUserHeader( ctx, message, headers );
+		if ( checkBooleanParameter( ctx, Parameters.KEEP_ALIVE, true ) == false || channel().toBeClosed() ) {
+			channel().setToBeClosed( true );
+			headers.add( HttpHeaderNames.CONNECTION, "close" );
+		}
+		if ( checkBooleanParameter( ctx, Parameters.CONCURRENT, true ) ) {
+			headers.add( Headers.JOLIE_MESSAGE_ID, message.id() );
+		}
+		if ( etag != null ) {
+			headers.set( HttpHeaderNames.ACCEPT_RANGES, HttpHeaderValues.BYTES );
+			headers.set( HttpHeaderNames.ETAG, etag );
+			headers.set( HttpHeaderNames.LAST_MODIFIED, new Date( lastModified ) );
+		}
+		if ( withBody ) {
+			String contentType = getStringParameter( ctx, Parameters.CONTENT_TYPE );
+			headers.set( HttpHeaderNames.CONTENT_TYPE, contentType.isEmpty() ? DEFAULT_CONTENT_TYPE : contentType );
+			String contentDisposition = getStringParameter( ctx, Parameters.CONTENT_DISPOSITION );
+			if ( !contentDisposition.isEmpty() ) {
+				headers.set( HttpHeaderNames.CONTENT_DISPOSITION, contentDisposition );
+			}
+		}
+		if ( status.equals( HttpResponseStatus.PARTIAL_CONTENT ) ) {
+			headers.set( HttpHeaderNames.CONTENT_RANGE, "bytes " + first + '-' + last + '/' + length );
+		} else if ( status.equals( HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE ) ) {
+			headers.set( HttpHeaderNames.CONTENT_RANGE, "bytes */" + length );
+		}
+		headers.set( HttpHeaderNames.CONTENT_LENGTH, count );
+
+		if ( checkBooleanParameter( ctx, Parameters.DEBUG ) ) {
+			ctx.interpreter().logInfo( "[HTTP debug] Sending file " + file + ":\n" + response.toString() );
+		}
+
+		out.add( response );
+		if ( response instanceof FileResponse ) {
+			if ( channelContext.pipeline().get( SslHandler.class ) == null ) {
+				out.add( new DefaultFileRegion( file, first, count ) );
+				out.add( LastHttpContent.EMPTY_LAST_CONTENT );
+			} else {
+				FileChannel fileChannel = new RandomAccessFile( file, "r" ).getChannel();
+				out.add( new HttpChunkedInput( new ChunkedNioFile( fileChannel, first, count, 8192 ) ) );
+			}
+		}
+		headRequest = false;
+	}
+
 	private void parseXML( FullHttpMessage message, Value value, String charset )
 		throws IOException
 	{
@@ -1289,9 +1494,11 @@ public class HttpProtocol extends AsyncCommProtocol
 					decodedMessage.value.getFirstChild( Parameters.USER_AGENT ).setValue( message.headers().get( HttpHeaderNames.USER_AGENT ) );
 				}
 				Value cookies = decodedMessage.value.getFirstChild( "cookies" );
-				ServerCookieDecoder decoder = ServerCookieDecoder.STRICT;
-				for( Cookie cookie : decoder.decode( message.headers().get( HttpHeaderNames.COOKIE ) ) ) {
-					cookies.getFirstChild( cookie.name() ).setValue( cookie.value() );
+				if ( message.headers().contains( HttpHeaderNames.COOKIE ) ) {
+					ServerCookieDecoder decoder = ServerCookieDecoder.STRICT;
+					for( Cookie cookie : decoder.decode( message.headers().get( HttpHeaderNames.COOKIE ) ) ) {
+						cookies.getFirstChild( cookie.name() ).setValue( cookie.value() );
+					}
 				}
 				decodedMessage.operationName = defaultOpId;
 			}
@@ -1377,6 +1584,9 @@ public class HttpProtocol extends AsyncCommProtocol
 		encoding = message.headers().get( HttpHeaderNames.ACCEPT_ENCODING );
 		if ( message instanceof FullHttpRequest ) {
 			headRequest = inInputPort && ((FullHttpRequest) message).method() == HttpMethod.HEAD;
+			requestRange = message.headers().get( HttpHeaderNames.RANGE );
+			requestIfNoneMatch = message.headers().get( HttpHeaderNames.IF_NONE_MATCH );
+			requestIfModifiedSince = message.headers().getTimeMillis( HttpHeaderNames.IF_MODIFIED_SINCE );
 		}
 
 		String contentType = DEFAULT_CONTENT_TYPE.toString();
@@ -0,0 +1,398 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by agent <agent@local>                             *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+package jolie.net.http;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.FullHttpMessage;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMessage;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * Assembles the parts of HTTP messages into full messages.
+ * Bodies are kept in memory up to {@link #MEMORY_THRESHOLD} bytes. Larger
+ * bodies are written to a temporary file while they are received, and the
+ * content of the resulting message is a mapping of that file, so that
+ * receiving them takes constant heap space.
+ *
+ * Files are written, mapped and deleted by a shared pool of threads, never
+ * by the I/O thread of the channel: reading from the channel is suspended
+ * while too many chunks wait to be written, and the objects received while
+ * a message is being completed are handled after it.
+ *
+ * Bodies larger than the maximum size given at construction, read again
+ * for each message, are refused: requests are answered with 413 (Request
+ * Entity Too Large) and the rest of their body is ignored, responses raise
+ * a {@link TooLongFrameException}.
+ */
+public class HttpBodyAggregator extends ChannelInboundHandlerAdapter
+{
+	public static final int MEMORY_THRESHOLD = 65536;
+	public static final long DEFAULT_MAX_BODY_SIZE = 100L * 1024 * 1024;
+	// Chunks waiting to be written to disk before reading is suspended
+	private static final int MAX_PENDING_WRITES = 16;
+
+	private static final ExecutorService FILE_EXECUTOR =
+		Executors.newCachedThreadPool( new DefaultThreadFactory( "jolie-http-body", true ) );
+
+	/**
+	 * The temporary file of a body, accessed only by the tasks it chains
+	 * on {@link #FILE_EXECUTOR}, one at a time.
+	 */
+	private static class BodyFile
+	{
+		private File file = null;
+		private FileChannel channel = null;
+		private long size = 0;
+		private CompletableFuture< Void > tasks = CompletableFuture.completedFuture( null );
+
+		private void write( ByteBuf buf )
+			throws IOException
+		{
+			try {
+				if ( channel == null ) {
+					file = File.createTempFile( "jolie-http", ".body" );
+					channel = new RandomAccessFile( file, "rw" ).getChannel();
+				}
+				while( buf.isReadable() ) {
+					size += buf.readBytes( channel, size, buf.readableBytes() );
+				}
+			} finally {
+				buf.release();
+			}
+		}
+
+		private ByteBuf map()
+			throws IOException
+		{
+			// The mapping stays valid after the file is closed and deleted
+			final ByteBuf content = Unpooled.wrappedBuffer( channel.map( FileChannel.MapMode.READ_ONLY, 0, size ) );
+			delete();
+			return content;
+		}
+
+		private void delete()
+		{
+			try {
+				if ( channel != null ) {
+					channel.close();
+				}
+			} catch( IOException e ) {
+			} finally {
+				channel = null;
+				if ( file != null && !file.delete() ) {
+					file.deleteOnExit();
+				}
+				file = null;
+			}
+		}
+	}
+
+	private final LongSupplier maxBodySizeSupplier;
+	private final Queue< Object > backlog = new ArrayDeque<>();
+	private HttpMessage message = null;
+	private long maxBodySize = DEFAULT_MAX_BODY_SIZE;
+	private CompositeByteBuf memoryContent = null;
+	private BodyFile bodyFile = null;
+	private long size = 0;
+	private int pendingWrites = 0;
+	private boolean completing = false;
+	private boolean removed = false;
+
+	public HttpBodyAggregator()
+	{
+		this( () -> DEFAULT_MAX_BODY_SIZE );
+	}
+
+	/**
+	 * @param maxBodySize supplies the maximum body size in bytes, when a
+	 * message starts; bodies can not exceed Integer.MAX_VALUE bytes anyway
+	 */
+	public HttpBodyAggregator( LongSupplier maxBodySize )
+	{
+		this.maxBodySizeSupplier = maxBodySize;
+	}
+
+	@Override
+	public void channelRead( ChannelHandlerContext ctx, Object msg )
+		throws Exception
+	{
+		if ( !(msg instanceof HttpObject) ) {
+			ctx.fireChannelRead( msg );
+		} else if ( completing ) {
+			backlog.add( msg );
+		} else {
+			handle( ctx, (HttpObject) msg );
+		}
+	}
+
+	private void handle( ChannelHandlerContext ctx, HttpObject msg )
+		throws Exception
+	{
+		try {
+			if ( msg instanceof HttpMessage ) {
+				discard();
+				message = (HttpMessage) msg;
+				maxBodySize = Math.min( maxBodySizeSupplier.getAsLong(), Integer.MAX_VALUE );
+				if ( HttpUtil.getContentLength( message, -1L ) > maxBodySize ) {
+					refuse( ctx );
+					return;
+				}
+				memoryContent = ctx.alloc().compositeBuffer( Integer.MAX_VALUE );
+				size = 0;
+				if ( msg instanceof HttpRequest && HttpUtil.is100ContinueExpected( (HttpRequest) msg ) ) {
+					ctx.writeAndFlush( new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE ) );
+				}
+			}
+
+			if ( msg instanceof HttpContent && message != null ) {
+				final ByteBuf chunk = ((HttpContent) msg).content();
+				if ( size + chunk.readableBytes() > maxBodySize ) {
+					refuse( ctx );
+					return;
+				}
+				append( ctx, chunk );
+				if ( msg instanceof LastHttpContent ) {
+					complete( ctx, (LastHttpContent) msg );
+				}
+			}
+		} finally {
+			ReferenceCountUtil.release( msg );
+		}
+	}
+
+	private void refuse( ChannelHandlerContext ctx )
+	{
+		final boolean isRequest = message instanceof HttpRequest;
+		final boolean keepAlive = HttpUtil.isKeepAlive( message );
+		// Drops the message, so that the rest of its body is ignored
+		discard();
+		if ( !isRequest ) {
+			throw new TooLongFrameException( "HTTP content length exceeded " + maxBodySize + " bytes." );
+		}
+
+		final FullHttpMessage response = new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE );
+		response.headers().setInt( HttpHeaderNames.CONTENT_LENGTH, 0 );
+		if ( keepAlive ) {
+			ctx.writeAndFlush( response );
+		} else {
+			response.headers().set( HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE );
+			ctx.writeAndFlush( response ).addListener( ChannelFutureListener.CLOSE );
+		}
+	}
+
+	private void append( ChannelHandlerContext ctx, ByteBuf chunk )
+	{
+		final int length = chunk.readableBytes();
+
+		if ( bodyFile == null && size + length > MEMORY_THRESHOLD ) {
+			// Spill what we have received so far and continue on disk
+			bodyFile = new BodyFile();
+			write( ctx, memoryContent );
+			memoryContent = null;
+		}
+
+		if ( bodyFile == null ) {
+			memoryContent.addComponent( true, chunk.retain() );
+		} else {
+			write( ctx, chunk.retain() );
+		}
+		size += length;
+	}
+
+	private void write( ChannelHandlerContext ctx, ByteBuf buf )
+	{
+		final BodyFile file = bodyFile;
+		if ( ++pendingWrites == MAX_PENDING_WRITES ) {
+			ctx.channel().config().setAutoRead( false );
+		}
+		file.tasks = file.tasks
+			.whenComplete( ( r, e ) -> {
+				if ( e != null ) {
+					buf.release();
+				}
+			} )
+			.thenRunAsync( () -> {
+				try {
+					file.write( buf );
+				} catch( IOException e ) {
+					throw new RuntimeException( e );
+				}
+			}, FILE_EXECUTOR );
+		file.tasks.whenComplete( ( r, e ) -> ctx.executor().execute( () -> {
+			if ( pendingWrites-- == MAX_PENDING_WRITES && !completing ) {
+				ctx.channel().config().setAutoRead( true );
+			}
+		} ) );
+	}
+
+	private void complete( ChannelHandlerContext ctx, LastHttpContent last )
+	{
+		final HttpMessage completedMessage = message;
+		final HttpHeaders trailingHeaders = new DefaultHttpHeaders().set( last.trailingHeaders() );
+		final long completedSize = size;
+		message = null;
+
+		if ( bodyFile == null ) {
+			final ByteBuf content = memoryContent;
+			memoryContent = null;
+			ctx.fireChannelRead( toFullMessage( completedMessage, trailingHeaders, content, completedSize ) );
+			return;
+		}
+
+		// Objects are handled in order, so wait for the body to be on disk
+		final BodyFile file = bodyFile;
+		bodyFile = null;
+		completing = true;
+		ctx.channel().config().setAutoRead( false );
+		file.tasks.thenApplyAsync( v -> {
+			try {
+				return file.map();
+			} catch( IOException e ) {
+				throw new RuntimeException( e );
+			}
+		}, FILE_EXECUTOR ).whenComplete( ( content, error ) -> {
+			if ( error != null ) {
+				FILE_EXECUTOR.execute( file::delete );
+			}
+			ctx.executor().execute( () -> {
+				completing = false;
+				if ( removed ) {
+					ReferenceCountUtil.release( content );
+					return;
+				}
+				if ( error == null ) {
+					ctx.fireChannelRead( toFullMessage( completedMessage, trailingHeaders, content, completedSize ) );
+				} else {
+					ctx.fireExceptionCaught( error );
+				}
+				handleBacklog( ctx );
+			} );
+		} );
+	}
+
+	private void handleBacklog( ChannelHandlerContext ctx )
+	{
+		try {
+			Object msg;
+			while( !completing && (msg = backlog.poll()) != null ) {
+				handle( ctx, (HttpObject) msg );
+			}
+		} catch( Exception e ) {
+			ctx.fireExceptionCaught( e );
+		}
+		if ( !completing ) {
+			if ( pendingWrites < MAX_PENDING_WRITES ) {
+				ctx.channel().config().setAutoRead( true );
+			}
+			ctx.fireChannelReadComplete();
+		}
+	}
+
+	private static FullHttpMessage toFullMessage( HttpMessage message, HttpHeaders trailingHeaders, ByteBuf content, long size )
+	{
+		final FullHttpMessage result;
+		if ( message instanceof HttpRequest ) {
+			final HttpRequest request = (HttpRequest) message;
+			result = new DefaultFullHttpRequest( request.protocolVersion(), request.method(), request.uri(), content );
+		} else {
+			final HttpResponse response = (HttpResponse) message;
+			result = new DefaultFullHttpResponse( response.protocolVersion(), response.status(), content );
+		}
+		result.headers().set( message.headers() );
+		result.trailingHeaders().set( trailingHeaders );
+		result.setDecoderResult( message.decoderResult() );
+		// The body is not chunked anymore
+		HttpUtil.setTransferEncodingChunked( result, false );
+		result.headers().setInt( HttpHeaderNames.CONTENT_LENGTH, (int) size );
+		return result;
+	}
+
+	private void discard()
+	{
+		message = null;
+		if ( memoryContent != null ) {
+			memoryContent.release();
+			memoryContent = null;
+		}
+		if ( bodyFile != null ) {
+			final BodyFile file = bodyFile;
+			file.tasks.whenCompleteAsync( ( r, e ) -> file.delete(), FILE_EXECUTOR );
+			bodyFile = null;
+		}
+	}
+
+	private void discardAll()
+	{
+		discard();
+		Object msg;
+		while( (msg = backlog.poll()) != null ) {
+			ReferenceCountUtil.release( msg );
+		}
+	}
+
+	@Override
+	public void channelInactive( ChannelHandlerContext ctx )
+		throws Exception
+	{
+		discardAll();
+		super.channelInactive( ctx );
+	}
+
+	@Override
+	public void handlerRemoved( ChannelHandlerContext ctx )
+		throws Exception
+	{
+		removed = true;
+		discardAll();
+		super.handlerRemoved( ctx );
+	}
+}
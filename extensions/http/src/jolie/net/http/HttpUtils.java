@@ -34,6 +34,7 @@ import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
 import jolie.net.CommChannel;
 import jolie.runtime.ByteArray;
+import jolie.runtime.Value;
 
 /**
  * Utilities for handling HTTP messages.
@@ -44,6 +45,20 @@ public class HttpUtils
 {
 	public final static String CRLF = new String( new char[]{ 13, 10 } );
 	public final static String URL_DECODER_ENC = "UTF-8";
+	// Protocol parameter for the maximum size of received bodies, in bytes
+	public final static String MAX_BODY_SIZE = "maxBodySize";
+
+	/**
+	 * Returns the maximum size of received bodies set in a protocol
+	 * configuration, or {@link HttpBodyAggregator#DEFAULT_MAX_BODY_SIZE}.
+	 */
+	public static long maxBodySize( Value configuration )
+	{
+		if ( configuration.hasChildren( MAX_BODY_SIZE ) ) {
+			return configuration.getFirstChild( MAX_BODY_SIZE ).longValue();
+		}
+		return HttpBodyAggregator.DEFAULT_MAX_BODY_SIZE;
+	}
 
 	// Checks if the message requests the channel to be closed or kept open
 	public static void recv_checkForChannelClosing( FullHttpMessage message, CommChannel channel )
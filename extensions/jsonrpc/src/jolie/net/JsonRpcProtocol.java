@@ -23,7 +23,9 @@
 
 package jolie.net;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
@@ -38,7 +40,6 @@ import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpVersion;
@@ -49,9 +50,11 @@ import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongSupplier;
 import jolie.Interpreter;
 import jolie.StatefulContext;
 import jolie.js.JsUtils;
+import jolie.net.http.HttpBodyAggregator;
 import jolie.net.http.HttpUtils;
 import jolie.net.http.Method;
 import jolie.net.http.UnsupportedMethodException;
@@ -109,7 +112,7 @@ public class JsonRpcProtocol extends AsyncCommProtocol
 		@Override
 		protected void encode( ChannelHandlerContext ctx, EncodedJsonRpcContent content, List<Object> out ) throws Exception
 		{
-			((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( content.context() );
+			StatefulContext.setCurrentContext( content.context() );
 			FullHttpMessage msg = buildHttpJsonRpcMessage( content );
 			out.add( msg );
 		}
@@ -117,6 +120,7 @@ public class JsonRpcProtocol extends AsyncCommProtocol
 		@Override
 		protected void decode( ChannelHandlerContext ctx, FullHttpMessage msg, List<Object> out ) throws Exception
 		{
+			refreshConfiguration();
 			if ( msg instanceof FullHttpRequest ) {
 				FullHttpRequest request = (FullHttpRequest) msg;
 			} else if ( msg instanceof FullHttpResponse ) {
@@ -134,7 +138,8 @@ public class JsonRpcProtocol extends AsyncCommProtocol
 		@Override
 		protected void encode( ChannelHandlerContext ctx, StatefulMessage message, List<Object> out ) throws Exception
 		{
-			((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( message.context() );
+			refreshConfiguration();
+			StatefulContext.setCurrentContext( message.context() );
 			EncodedJsonRpcContent content = buildJsonRpcMessage(message );
 			out.add( content );
 		}
@@ -158,7 +163,15 @@ public class JsonRpcProtocol extends AsyncCommProtocol
 			pipeline.addLast( new HttpClientCodec() );
 			pipeline.addLast( new HttpContentDecompressor() );
 		}
-		pipeline.addLast( new HttpObjectAggregator( 65536 ) );		
+		// The limit is read from the port configuration, as declared
+		final StatefulContext initContext = interpreter.initContext();
+		pipeline.addLast( new HttpBodyAggregator( new LongSupplier() {
+			@Override
+			public long getAsLong()
+			{
+				return HttpUtils.maxBodySize( configuration( initContext ) );
+			}
+		} ) );
 		pipeline.addLast( new JsonRpcHttpCommMessageCodec() );
 		setupWrapablePipeline( pipeline );
 	}
@@ -256,9 +269,9 @@ public class JsonRpcProtocol extends AsyncCommProtocol
 				value.getFirstChild( "id" ).setValue( message.id() );
 			}
 		}
-		StringBuilder json = new StringBuilder();
-		JsUtils.valueToJsonString( value, true, Type.UNDEFINED, json );
-		return new EncodedJsonRpcContent( Unpooled.wrappedBuffer( json.toString().getBytes( "utf-8" ) ), Charset.forName( "utf-8" ), ctx );
+		ByteBuf json = Unpooled.buffer();
+		JsUtils.valueToJson( value, true, Type.UNDEFINED, new ByteBufOutputStream( json ) );
+		return new EncodedJsonRpcContent( json, Charset.forName( "utf-8" ), ctx );
 	}
 
 	public EncodedJsonRpcContent recv_http_internal( FullHttpMessage message )
@@ -292,7 +305,7 @@ public class JsonRpcProtocol extends AsyncCommProtocol
 			
 		if (!value.hasChildren("id")) {
 			StatefulContext genericContext = channel().getContextFor( CommMessage.GENERIC_ID, isRequest );
-			((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( genericContext );
+			StatefulContext.setCurrentContext( genericContext );
 			if ( checkBooleanParameter( genericContext , "debug", false ) ) {
 				interpreter.logInfo( "[JSON-RPC debug] Receiving:\n" + content.text() );
 			}
@@ -304,7 +317,7 @@ public class JsonRpcProtocol extends AsyncCommProtocol
 		String jsonRpcId = value.getFirstChild("id").strValue();
 		StatefulContext ctx = channel().getContextFor( Long.valueOf(jsonRpcId), isRequest );
 		
-		((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( ctx );
+		StatefulContext.setCurrentContext( ctx );
 		getParameterFirstValue(ctx, "channelLocation").setValue( channel() ); // TODO remove me for testing
 		
 		
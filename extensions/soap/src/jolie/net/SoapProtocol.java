@@ -45,7 +45,6 @@ import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpVersion;
@@ -64,6 +63,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.LongSupplier;
 import javax.wsdl.BindingOperation;
 import javax.wsdl.BindingOutput;
 import javax.wsdl.Definition;
@@ -108,6 +108,7 @@ import javax.xml.validation.SchemaFactory;
 import jolie.Interpreter;
 import jolie.StatefulContext;
 import jolie.lang.Constants;
+import jolie.net.http.HttpBodyAggregator;
 import jolie.net.http.HttpUtils;
 import jolie.net.http.Method;
 import jolie.net.http.UnsupportedMethodException;
@@ -167,7 +168,15 @@ public class SoapProtocol extends AsyncCommProtocol
 			pipeline.addLast( new HttpClientCodec() );
 			pipeline.addLast( new HttpContentDecompressor() );
 		}
-		pipeline.addLast( new HttpObjectAggregator( 65536 ) );
+		// The limit is read from the port configuration, as declared
+		final StatefulContext initContext = interpreter.initContext();
+		pipeline.addLast( new HttpBodyAggregator( new LongSupplier() {
+			@Override
+			public long getAsLong()
+			{
+				return HttpUtils.maxBodySize( configuration( initContext ) );
+			}
+		} ) );
 		pipeline.addLast( new SoapCommMessageCodec() );
 	}
 
@@ -233,7 +242,8 @@ public class SoapProtocol extends AsyncCommProtocol
 		@Override
 		protected void encode( ChannelHandlerContext ctx, StatefulMessage message, List<Object> out ) throws Exception
 		{
-			((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( message.context() );
+			refreshConfiguration();
+			StatefulContext.setCurrentContext( message.context() );
 //			System.out.println( "Sending: " + message.toString() );
 			FullHttpMessage msg = buildSoapMessage(message );
 			out.add( msg );
@@ -242,6 +252,7 @@ public class SoapProtocol extends AsyncCommProtocol
 		@Override
 		protected void decode( ChannelHandlerContext ctx, FullHttpMessage msg, List<Object> out ) throws Exception
 		{
+			refreshConfiguration();
 			if ( msg instanceof FullHttpRequest ) {
 				FullHttpRequest request = (FullHttpRequest) msg;
 //				System.out.println( "HTTP request ! (" + request.uri() + ")" );
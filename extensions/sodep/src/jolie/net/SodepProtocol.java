@@ -20,10 +20,10 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
 import java.nio.charset.Charset;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import jolie.Interpreter;
 import jolie.StatefulContext;
@@ -47,14 +47,50 @@ public class SodepProtocol extends AsyncCommProtocol
 		private static final int LONG = 6;
 	}
 
+	private static class Parameters
+	{
+		/*
+		 * Prefixes every message with its length, so that decoding starts
+		 * only when a message has been received entirely.
+		 * Both endpoints must agree on this parameter.
+		 */
+		private static final String FRAMED = "framed";
+		private static final String MAX_FRAME_LENGTH = "maxFrameLength";
+		/*
+		 * Lets concurrent requests to the same location share a single
+		 * connection, instead of opening one connection for each of them.
+		 */
+		private static final String MULTIPLEX = "multiplex";
+	}
+
+	private static final int FRAME_LENGTH_FIELD_SIZE = 4;
+
+	private boolean framed = false;
+	private int maxFrameLength = Integer.MAX_VALUE;
+	private boolean multiplexed = false;
+
 	public String name()
 	{
 		return "sodep";
 	}
 
+	@Override
+	public void initialize( StatefulContext ctx )
+	{
+		framed = checkBooleanParameter( ctx, Parameters.FRAMED );
+		if ( hasParameterValue( ctx, Parameters.MAX_FRAME_LENGTH ) ) {
+			maxFrameLength = getIntParameter( ctx, Parameters.MAX_FRAME_LENGTH );
+		}
+		multiplexed = checkBooleanParameter( ctx, Parameters.MULTIPLEX );
+	}
+
 	@Override
 	public void setupPipeline( ChannelPipeline pipeline )
 	{
+		if ( framed ) {
+			pipeline.addLast( new LengthFieldBasedFrameDecoder( maxFrameLength, 0, FRAME_LENGTH_FIELD_SIZE, 0, FRAME_LENGTH_FIELD_SIZE ) );
+			pipeline.addLast( new LengthFieldPrepender( FRAME_LENGTH_FIELD_SIZE ) );
+		}
 		pipeline.addLast( new SodepCommMessageCodec() );
 	}
 
@@ -64,14 +100,23 @@ public class SodepProtocol extends AsyncCommProtocol
 		return true;
 	}
 
+	@Override
+	public boolean isMultiplexed()
+	{
+		return multiplexed;
+	}
+
 	public class SodepCommMessageCodec extends ByteToMessageCodec<StatefulMessage>
 	{
 		@Override
 		protected void encode( ChannelHandlerContext ctx, StatefulMessage msg, ByteBuf out )
 			throws Exception
 		{
-			((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( msg.context() );
-			channel().setToBeClosed( !checkBooleanParameter( msg.context(), "keepAlive", true ) );
+			refreshConfiguration();
+			StatefulContext.setCurrentContext( msg.context() );
+			if ( !multiplexed ) {
+				channel().setToBeClosed( !checkBooleanParameter( msg.context(), "keepAlive", true ) );
+			}
 			updateCharset( msg.context() );
 			writeMessage( out, msg.message() );
 		}
@@ -80,25 +125,33 @@ public class SodepProtocol extends AsyncCommProtocol
 		protected void decode( ChannelHandlerContext ctx, ByteBuf in, List<Object> out )
 			throws Exception
 		{
+			refreshConfiguration();
 			StatefulMessage msg;
-			in.markReaderIndex();
-			try {
+			if ( framed ) {
+				// The frame decoder guarantees that the whole message is available.
 				msg = readMessage( in );
-				out.add( msg );
-			} catch( IndexOutOfBoundsException iex ) {
-				/*
-				 * Not enough bytes were available. Reset the buffer.
-				 * 
-				 * TODO instead of throwing away already read bytes and partial 
-				 * CommMessage, we could store the partial CommMessage, and 
-				 * resume decoding when more bytes are available until the 
-				 * complete message is read.
-				 */
-				in.resetReaderIndex();
-				return;
+			} else {
+				in.markReaderIndex();
+				try {
+					msg = readMessage( in );
+				} catch( IndexOutOfBoundsException iex ) {
+					/*
+					 * Not enough bytes were available. Reset the buffer.
+					 * 
+					 * TODO instead of throwing away already read bytes and partial 
+					 * CommMessage, we could store the partial CommMessage, and 
+					 * resume decoding when more bytes are available until the 
+					 * complete message is read. The framed mode avoids this.
+					 */
+					in.resetReaderIndex();
+					return;
+				}
 			}
+			out.add( msg );
 			
-			channel().setToBeClosed( !checkBooleanParameter( msg.context(), "keepAlive", true ) );
+			if ( !multiplexed ) {
+				channel().setToBeClosed( !checkBooleanParameter( msg.context(), "keepAlive", true ) );
+			}
 
 		}
 
@@ -119,9 +172,9 @@ public class SodepProtocol extends AsyncCommProtocol
 	{
 		int len = in.readInt();
 		if ( len > 0 ) {
-			byte[] bb = new byte[ len ];
-			in.readBytes( bb, 0, len );
-			return new String( bb, stringCharset );
+			int index = in.readerIndex();
+			in.skipBytes( len );
+			return in.toString( index, len, stringCharset );
 		}
 		return "";
 	}
@@ -169,46 +222,45 @@ public class SodepProtocol extends AsyncCommProtocol
 
 	private void writeValue( ByteBuf out, Value value )
 	{
-		Object valueObject = value.valueObject();
-		if ( valueObject == null ) {
-			out.writeByte( DataTypeHeaderId.NULL );
-		} else if ( valueObject instanceof String ) {
-			out.writeByte( DataTypeHeaderId.STRING );
-			writeString( out, (String) valueObject );
-		} else if ( valueObject instanceof Integer ) {
+		// Primitive contents are checked first, to avoid boxing them
+		if ( value.isInt() ) {
 			out.writeByte( DataTypeHeaderId.INT );
-			out.writeInt( (Integer) valueObject );
-		} else if ( valueObject instanceof Double ) {
+			out.writeInt( value.intValue() );
+		} else if ( value.isDouble() ) {
 			out.writeByte( DataTypeHeaderId.DOUBLE );
-			out.writeDouble( (Double) valueObject );
-		} else if ( valueObject instanceof ByteArray ) {
-			out.writeByte( DataTypeHeaderId.BYTE_ARRAY );
-			writeByteArray( out, (ByteArray) valueObject );
-		} else if ( valueObject instanceof Boolean ) {
+			out.writeDouble( value.doubleValue() );
+		} else if ( value.isBool() ) {
 			out.writeByte( DataTypeHeaderId.BOOL );
-			out.writeBoolean( (Boolean) valueObject );
-		} else if ( valueObject instanceof Long ) {
+			out.writeBoolean( value.boolValue() );
+		} else if ( value.isLong() ) {
 			out.writeByte( DataTypeHeaderId.LONG );
-			out.writeLong( (Long) valueObject );
+			out.writeLong( value.longValue() );
 		} else {
-			out.writeByte( DataTypeHeaderId.NULL );
-		}
-
-		Map< String, ValueVector> children = value.children();
-		List< Entry< String, ValueVector>> entries
-			= new LinkedList< Entry< String, ValueVector>>();
-		for( Entry< String, ValueVector> entry : children.entrySet() ) {
-			entries.add( entry );
+			final Object valueObject = value.valueObject();
+			if ( valueObject instanceof String ) {
+				out.writeByte( DataTypeHeaderId.STRING );
+				writeString( out, (String) valueObject );
+			} else if ( valueObject instanceof ByteArray ) {
+				out.writeByte( DataTypeHeaderId.BYTE_ARRAY );
+				writeByteArray( out, (ByteArray) valueObject );
+			} else {
+				out.writeByte( DataTypeHeaderId.NULL );
+			}
 		}
 
-		out.writeInt( entries.size() );
-		for( Entry< String, ValueVector> entry : entries ) {
+		// The number of children is known only after writing them
+		final int sizeIndex = out.writerIndex();
+		out.writeInt( 0 );
+		int size = 0;
+		for( Entry< String, ValueVector> entry : value.childrenEntries() ) {
 			writeString( out, entry.getKey() );
 			out.writeInt( entry.getValue().size() );
 			for( Value v : entry.getValue() ) {
 				writeValue( out, v );
 			}
+			size++;
 		}
+		out.setInt( sizeIndex, size );
 	}
 
 	private void writeMessage( ByteBuf out, CommMessage message )
@@ -229,36 +281,32 @@ public class SodepProtocol extends AsyncCommProtocol
 	private Value readValue( ByteBuf in )
 		throws IndexOutOfBoundsException
 	{
-		Value value = Value.create();
-		Object valueObject = null;
+		Value value = Value.createCompact();
 		byte b = in.readByte();
 		switch( b ) {
 			case DataTypeHeaderId.STRING:
-				valueObject = readString( in );
+				value.setValue( readString( in ) );
 				break;
 			case DataTypeHeaderId.INT:
-				valueObject = in.readInt();
+				value.setValue( in.readInt() );
 				break;
 			case DataTypeHeaderId.LONG:
-				valueObject = in.readLong();
+				value.setValue( in.readLong() );
 				break;
 			case DataTypeHeaderId.DOUBLE:
-				valueObject = in.readDouble();
+				value.setValue( in.readDouble() );
 				break;
 			case DataTypeHeaderId.BYTE_ARRAY:
-				valueObject = readByteArray( in );
+				value.setValue( readByteArray( in ) );
 				break;
 			case DataTypeHeaderId.BOOL:
-				valueObject = in.readBoolean();
+				value.setValue( in.readBoolean() );
 				break;
 			case DataTypeHeaderId.NULL:
 			default:
 				break;
 		}
 
-		value.setValue( valueObject );
-
-		Map< String, ValueVector> children = value.children();
 		String s;
 		int n, i, size, k;
 		n = in.readInt(); // How many children?
@@ -266,12 +314,11 @@ public class SodepProtocol extends AsyncCommProtocol
 
 		for( i = 0; i < n; i++ ) {
 			s = readString( in );
-			vec = ValueVector.create();
+			vec = value.getChildren( s );
 			size = in.readInt();
 			for( k = 0; k < size; k++ ) {
 				vec.add( readValue( in ) );
 			}
-			children.put( s, vec );
 		}
 		return value;
 	}
@@ -35,7 +35,6 @@ import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpVersion;
@@ -59,6 +58,7 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import jolie.Interpreter;
 import jolie.StatefulContext;
+import jolie.net.http.HttpBodyAggregator;
 import jolie.net.http.HttpUtils;
 import jolie.net.http.Method;
 import jolie.net.http.UnsupportedMethodException;
@@ -164,7 +164,8 @@ public class XmlRpcProtocol extends AsyncCommProtocol
 		@Override
 		protected void encode( ChannelHandlerContext ctx, StatefulMessage message, List<Object> out ) throws Exception
 		{
-			((CommCore.ExecutionContextThread) Thread.currentThread()).executionContext( message.context() );
+			refreshConfiguration();
+			StatefulContext.setCurrentContext( message.context() );
 //			System.out.println( "Sending: " + message.toString() );
 			FullHttpMessage msg = buildXmlRpcMessage( message );
 			out.add( msg );
@@ -173,6 +174,7 @@ public class XmlRpcProtocol extends AsyncCommProtocol
 		@Override
 		protected void decode( ChannelHandlerContext ctx, FullHttpMessage msg, List<Object> out ) throws Exception
 		{
+			refreshConfiguration();
 			if ( msg instanceof FullHttpRequest ) {
 				FullHttpRequest request = (FullHttpRequest) msg;
 //				System.out.println( "HTTP request ! (" + request.uri() + ")" );
@@ -197,7 +199,11 @@ public class XmlRpcProtocol extends AsyncCommProtocol
 			pipeline.addLast( new HttpClientCodec() );
 			pipeline.addLast( new HttpContentDecompressor() );
 		}
-		pipeline.addLast( new HttpObjectAggregator( 65536 ) );
+		// The limit is read from the port configuration, as declared
+		final StatefulContext initContext = interpreter.initContext();
+		pipeline.addLast( new HttpBodyAggregator(
+			() -> HttpUtils.maxBodySize( configuration( initContext ) )
+		) );
 		pipeline.addLast(new XmlCommMessageCodec() );
 	}
 
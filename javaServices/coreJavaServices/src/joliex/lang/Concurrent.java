@@ -22,32 +22,61 @@
 package joliex.lang;
 
 
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
 import jolie.Interpreter;
 import jolie.runtime.FaultException;
 import jolie.runtime.embedding.RequestResponse;
 
+/**
+ * Global locks for waiting and notifying among sessions.
+ * A waiting session is suspended until it is notified, without holding
+ * a thread.
+ */
 public class Concurrent
 {
+	// Global lock -> sessions waiting on it
+	private static final Map< Object, Queue< CompletableFuture< Void > > > waiters = new WeakHashMap<>();
+
+	private static CompletableFuture< Void > pollWaiter( Object lock )
+	{
+		synchronized( waiters ) {
+			final Queue< CompletableFuture< Void > > queue = waiters.get( lock );
+			return ( queue == null ) ? null : queue.poll();
+		}
+	}
+
 	@RequestResponse
 	public void notify( String lockName )
 		throws FaultException
 	{
-		Interpreter.getInstance().getLock( lockName ).notify();
+		final CompletableFuture< Void > waiter = pollWaiter( Interpreter.getInstance().getLock( lockName ) );
+		if ( waiter != null ) {
+			waiter.complete( null );
+		}
 	}
 
 	@RequestResponse
 	public void notifyAll( String lockName )
 		throws FaultException
 	{
-		Interpreter.getInstance().getLock( lockName ).notifyAll();
+		final Object lock = Interpreter.getInstance().getLock( lockName );
+		CompletableFuture< Void > waiter;
+		while( (waiter=pollWaiter( lock )) != null ) {
+			waiter.complete( null );
+		}
 	}
 
-	@RequestResponse
-	public void wait( String lockName )
-		throws FaultException
+	public CompletableFuture< Void > wait( String lockName )
 	{
-		try {
-			Interpreter.getInstance().getLock( lockName ).wait();
-		} catch( InterruptedException ie ) {}
+		final CompletableFuture< Void > waiter = new CompletableFuture<>();
+		final Object lock = Interpreter.getInstance().getLock( lockName );
+		synchronized( waiters ) {
+			waiters.computeIfAbsent( lock, l -> new ArrayDeque<>() ).add( waiter );
+		}
+		return waiter;
 	}
 }
@@ -32,6 +32,7 @@ import jolie.Interpreter;
 import jolie.StatefulContext;
 import jolie.lang.Constants;
 import jolie.lang.Constants.EmbeddedServiceType;
+import jolie.monitoring.MonitoringPipeline;
 import jolie.net.CommListener;
 import jolie.net.LocalCommChannel;
 import jolie.net.ports.OutputPort;
@@ -80,7 +81,14 @@ public class RuntimeService extends JavaService
 				true );
 		port.optimizeLocation( context() );
 
-		interpreter.setMonitor( port );
+		final int bufferSize = request.hasChildren( "bufferSize" )
+			? request.getFirstChild( "bufferSize" ).intValue()
+			: MonitoringPipeline.DEFAULT_CAPACITY;
+		interpreter.setMonitor(
+			port,
+			bufferSize,
+			MonitoringPipeline.OverflowPolicy.fromString( request.getFirstChild( "overflowPolicy" ).strValue() )
+		);
 	}
 
 	@RequestResponse
@@ -310,6 +318,10 @@ public class RuntimeService extends JavaService
 		final Value stats = Value.create();
 		stats_files( stats.getFirstChild( "files" ) );
 		stats_os( stats.getFirstChild( "os" ) );
+		stats_tls( stats.getFirstChild( "tls" ) );
+		if ( interpreter.isMonitoring() ) {
+			stats.getFirstChild( "monitor" ).setFirstChild( "droppedEvents", interpreter.droppedMonitorEvents() );
+		}
 		return stats;
 	}
 	
@@ -323,6 +335,15 @@ public class RuntimeService extends JavaService
 		stats.setFirstChild( "version", osBean.getVersion() );
 	}
 	
+	private void stats_tls( Value stats )
+	{
+		final long handshakes = interpreter.commCore().tlsHandshakes();
+		final long resumed = interpreter.commCore().resumedTlsHandshakes();
+		stats.setFirstChild( "handshakes", handshakes );
+		stats.setFirstChild( "resumedHandshakes", resumed );
+		stats.setFirstChild( "resumptionRatio", ( handshakes == 0 ) ? 0.0 : (double) resumed / handshakes );
+	}
+
 	private void stats_files( Value stats )
 	{
 		OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
@@ -30,42 +30,17 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
 import jolie.net.CommMessage;
+import jolie.runtime.Cancellable;
 import jolie.runtime.FaultException;
 import jolie.runtime.JavaService;
 import jolie.runtime.Value;
 import jolie.runtime.ValueVector;
-import jolie.runtime.embedding.RequestResponse;
 
 public class TimeService extends JavaService
 {
-	protected class TimeThread extends Thread
-	{
-		private final long waitTime;
-		private final String callbackOperation;
-		private final Value callbackValue;
-		private final TimeService parent;
-		public TimeThread( TimeService parent, long waitTime, String callbackOperation, Value callbackValue )
-		{
-			this.waitTime = waitTime;
-			this.callbackOperation =
-					( callbackOperation == null ) ? "timeout" : callbackOperation;
-			this.callbackValue =
-					( callbackValue == null ) ? Value.create() : callbackValue;
-			this.parent = parent;
-		}
-
-		@Override
-		public void run()
-		{
-			try {
-				Thread.sleep( waitTime );
-				parent.sendMessage( context(), CommMessage.createRequest( callbackOperation, "/", callbackValue ) );
-			} catch( InterruptedException e ) {}
-		}
-	}
-
-	private TimeThread thread = null;
+	private Cancellable nextTimeout = null;
 	private final DateFormat dateFormat, dateTimeFormat;
 
 	public TimeService()
@@ -79,22 +54,34 @@ public class TimeService extends JavaService
 		throws Throwable
 	{
 		try {
-			if ( thread != null ) {
-				thread.interrupt();
-			}
+			cancelNextTimeout();
 		} finally {
 			super.finalize();
 		}
 	}
 
-	private void launchTimeThread( long waitTime, String callbackOperation, Value callbackValue )
+	private synchronized void cancelNextTimeout()
 	{
-		waitTime = ( waitTime > 0 ) ? waitTime : 0L;
-		if ( thread != null ) {
-			thread.interrupt();
+		if ( nextTimeout != null ) {
+			nextTimeout.cancel();
+			nextTimeout = null;
 		}
-		thread = new TimeThread( this, waitTime, callbackOperation, callbackValue );
-		thread.start();
+	}
+
+	// The callback is sent from a timer, no thread waits for it
+	private synchronized void launchTimeThread( long waitTime, String callbackOperation, Value callbackValue )
+	{
+		waitTime = ( waitTime > 0 ) ? waitTime : 0L;
+		cancelNextTimeout();
+		final CommMessage callback = CommMessage.createRequest(
+			( callbackOperation == null ) ? "timeout" : callbackOperation,
+			"/",
+			( callbackValue == null ) ? Value.create() : callbackValue
+		);
+		nextTimeout = interpreter().schedule(
+			() -> interpreter().execute( () -> sendMessage( context(), callback ) ),
+			waitTime
+		);
 	}
 
 	public void setNextTimeout( Value request )
@@ -158,15 +145,17 @@ public class TimeService extends JavaService
 		launchTimeThread( waitTime, callbackOperation, callbackValue );
 	}
 
-	@RequestResponse
-	public void sleep( Integer millis )
+	/*
+	 * The response is sent by a timer: sleeping sessions do not hold
+	 * any thread.
+	 */
+	public CompletableFuture< Void > sleep( Integer millis )
 	{
-		try {
-			if ( millis > 0 ) {
-				Thread.sleep( millis );
-			}
-		} catch ( InterruptedException e ) {
+		final CompletableFuture< Void > wakeUp = new CompletableFuture<>();
+		if ( millis <= 0 || interpreter().schedule( () -> wakeUp.complete( null ), millis ) == null ) {
+			wakeUp.complete( null );
 		}
+		return wakeUp;
 	}
 
 	public Long getCurrentTimeMillis()
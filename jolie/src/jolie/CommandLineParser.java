@@ -63,6 +63,9 @@ public class CommandLineParser implements Closeable
 
 	private final int connectionsLimit;
 	private final int connectionsCache;
+	private final int spawnLimit;
+	private final int sliceSteps;
+	private final boolean elasticJavaExecutor;
 	private final CorrelationEngine.Type correlationAlgorithmType;
 	private final String[] includePaths;
 	private final String[] optionArgs;
@@ -206,6 +209,38 @@ public class CommandLineParser implements Closeable
 	{
 		return connectionsCache;
 	}
+
+	/**
+	 * Returns the maximum number of running contexts for each spawn statement,
+	 * passed by command line with the --spawnlimit option.
+	 * @return the spawn limit, or a non-positive number if there is no limit
+	 */
+	public int spawnLimit()
+	{
+		return spawnLimit;
+	}
+
+	/**
+	 * Returns the maximum number of steps a context runs before giving its
+	 * thread to other contexts, as set by the --slicesteps option.
+	 * @return the number of steps of a slice, or a non-positive number if
+	 * contexts run until they suspend
+	 */
+	public int sliceSteps()
+	{
+		return sliceSteps;
+	}
+
+	/**
+	 * Returns true if operations of Java services should run on an elastic
+	 * thread pool instead of the calling thread, as set by the
+	 * --javaexecutor option.
+	 * @return true if Java services run on an elastic thread pool
+	 */
+	public boolean elasticJavaExecutor()
+	{
+		return elasticJavaExecutor;
+	}
 	
 	private static String getOptionString( String option, String description )
 	{
@@ -246,6 +281,12 @@ public class CommandLineParser implements Closeable
 				getOptionString( "--connlimit [number]", "Set the maximum number of active connection threads" ) );
 		helpBuilder.append(
 				getOptionString( "--conncache [number]", "Set the maximum number of cached persistent output connections" ) );
+		helpBuilder.append(
+				getOptionString( "--spawnlimit [number]", "Set the maximum number of concurrently running branches of each spawn statement (default: no limit)" ) );
+		helpBuilder.append(
+				getOptionString( "--slicesteps [number]", "Set the number of statements a session runs before letting other sessions run, 0 for no limit (default: 10000)" ) );
+		helpBuilder.append(
+				getOptionString( "--javaexecutor [caller|elastic]", "Run operations of Java services on the calling thread or on an elastic thread pool, for services that block (default: caller)" ) );
 		helpBuilder.append(
 				getOptionString( "--correlationAlgorithm [simple|hash]", "Set the algorithm to use for message correlation" ) );
 		helpBuilder.append(
@@ -376,6 +417,9 @@ public class CommandLineParser implements Closeable
 		List< String > libList = new ArrayList<>();
 		int cLimit = -1;
 		int cCache = 100;
+		int sLimit = -1;
+		int sSteps = 10000;
+		String javaExecutorName = "caller";
 		String pwd = new File( "" ).getCanonicalPath();
 		includeList.add( pwd );
 		includeList.add( "include" );
@@ -426,6 +470,21 @@ public class CommandLineParser implements Closeable
 				i++;
 				cCache = Integer.parseInt( argsList.get( i ) );
 				optionsList.add( argsList.get( i ) );
+			} else if ( "--spawnlimit".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				i++;
+				sLimit = Integer.parseInt( argsList.get( i ) );
+				optionsList.add( argsList.get( i ) );
+			} else if ( "--slicesteps".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				i++;
+				sSteps = Integer.parseInt( argsList.get( i ) );
+				optionsList.add( argsList.get( i ) );
+			} else if ( "--javaexecutor".equals( argsList.get( i ) ) ) {
+				optionsList.add( argsList.get( i ) );
+				i++;
+				javaExecutorName = argsList.get( i );
+				optionsList.add( argsList.get( i ) );
 			} else if ( "--correlationAlgorithm".equals( argsList.get( i ) ) ) {
 				optionsList.add( argsList.get( i ) );
 				i++;
@@ -525,6 +584,13 @@ public class CommandLineParser implements Closeable
 		if ( correlationAlgorithmType == null ) {
 			throw new CommandLineException( "Unrecognized correlation algorithm: " + csetAlgorithmName );
 		}
+		if ( "elastic".equals( javaExecutorName ) ) {
+			elasticJavaExecutor = true;
+		} else if ( "caller".equals( javaExecutorName ) ) {
+			elasticJavaExecutor = false;
+		} else {
+			throw new CommandLineException( "Unrecognized Java service executor: " + javaExecutorName );
+		}
 		optionArgs = optionsList.toArray( new String[ optionsList.size() ] );
 		arguments = programArgumentsList.toArray( new String[ programArgumentsList.size() ] );
 		// whitepages = whitepageList.toArray( new String[ whitepageList.size() ] );
@@ -535,6 +601,8 @@ public class CommandLineParser implements Closeable
 	
 		connectionsLimit = cLimit;
 		connectionsCache = cCache;
+		spawnLimit = sLimit;
+		sliceSteps = sSteps;
         
 		List< URL > urls = new ArrayList<>();
 		for( String path : libList ) {
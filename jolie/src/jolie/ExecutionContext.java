@@ -155,6 +155,7 @@ public abstract class ExecutionContext extends JolieContext
 	protected final ExecutionContext parent;
 	protected Deque<Behaviour> processStack = new ArrayDeque<>();
 	protected Deque<Deque<Behaviour>> scopeProcessStack = new ArrayDeque<>();
+	// Only accessed by the thread running this context, while holding its monitor
 	protected boolean pauseExecution = false;
 	
 	/**
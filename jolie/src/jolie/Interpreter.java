@@ -21,14 +21,16 @@
 
 package jolie;
 
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.PrintStream;
-import java.lang.ref.WeakReference;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -37,19 +39,20 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -71,6 +74,7 @@ import jolie.lang.parse.SemanticVerifier;
 import jolie.lang.parse.TypeChecker;
 import jolie.lang.parse.ast.Program;
 import jolie.monitoring.MonitoringEvent;
+import jolie.monitoring.MonitoringPipeline;
 import jolie.monitoring.events.MonitorAttachedEvent;
 import jolie.monitoring.events.OperationStartedEvent;
 import jolie.monitoring.events.SessionEndedEvent;
@@ -80,10 +84,12 @@ import jolie.net.CommCore;
 import jolie.net.CommMessage;
 import jolie.net.SessionMessage;
 import jolie.net.ports.OutputPort;
+import jolie.runtime.Cancellable;
 import jolie.runtime.FaultException;
 import jolie.runtime.InputOperation;
 import jolie.runtime.InvalidIdException;
 import jolie.runtime.OneWayOperation;
+import jolie.runtime.QueueLock;
 import jolie.runtime.RequestResponseOperation;
 import jolie.runtime.TimeoutHandler;
 import jolie.runtime.Value;
@@ -184,25 +190,81 @@ public class Interpreter
 		}
 	}
 	
-	private static class JolieExecutionThreadFactory implements ThreadFactory {
+	private static class JolieExecutionThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
 		private final Interpreter interpreter;
 		public JolieExecutionThreadFactory( Interpreter interpreter )
 		{
 			this.interpreter = interpreter;
 		}
-		public Thread newThread( Runnable r )
+		@Override
+		public ForkJoinWorkerThread newThread( ForkJoinPool pool )
 		{
-			JolieExecutorThread t = new JolieExecutorThread( r, interpreter );
-			//if ( r instanceof ExecutionThread ) {
-				//t.setExecutionThread( (ExecutionThread)r );
-			//} else
-			if ( r instanceof StatefulContext ) {
-				t.sessionContext( (StatefulContext) r );
-			}
-			return t;
+			return new JolieExecutorThread( pool, interpreter );
 		}
 	}
 	
+	/*
+	 * Timeouts and scheduled tasks of all the interpreters of the JVM share
+	 * a single timer thread, created on first use.
+	 */
+	private static class SharedTimer
+	{
+		private static final HashedWheelTimer INSTANCE = new HashedWheelTimer(
+			new DefaultThreadFactory( "jolie-timer", true ),
+			TIMER_TICK_DURATION, TimeUnit.MILLISECONDS
+		);
+	}
+
+	/**
+	 * A task of this interpreter pending on the shared timer.
+	 * It runs at most once: either when it expires, or when the interpreter
+	 * exits if it is a {@link TimeoutHandler}.
+	 */
+	private class PendingTimeout implements TimerTask, Cancellable
+	{
+		private final Runnable task;
+		private volatile Timeout timeout = null;
+
+		private PendingTimeout( Runnable task )
+		{
+			this.task = task;
+		}
+
+		@Override
+		public void run( Timeout t )
+		{
+			if ( pendingTimeouts.remove( this ) ) {
+				task.run();
+			}
+		}
+
+		@Override
+		public void cancel()
+		{
+			if ( pendingTimeouts.remove( this ) ) {
+				cancelTimeout();
+			}
+		}
+
+		private void expireOnExit()
+		{
+			if ( pendingTimeouts.remove( this ) ) {
+				cancelTimeout();
+				if ( task instanceof TimeoutHandler ) {
+					task.run();
+				}
+			}
+		}
+
+		private void cancelTimeout()
+		{
+			final Timeout t = timeout;
+			if ( t != null ) {
+				t.cancel();
+			}
+		}
+	}
+
 	private static class NativeJolieThreadFactory implements ThreadFactory {
 		private final Interpreter interpreter;
 		
@@ -257,7 +319,7 @@ public class Interpreter
 	private Interpreter parentInterpreter = null;
 
 	private Map< String, SessionStarter > sessionStarters = new HashMap<>();
-	private boolean exiting = false;
+	private volatile boolean exiting = false;
 	private final Lock exitingLock;
 	private final Condition exitingCondition;
 	private final CorrelationEngine correlationEngine;
@@ -273,45 +335,74 @@ public class Interpreter
 	private final Map< String, OutputPort > outputPorts = new HashMap<>();
 	private final Map< String, InputOperation > inputOperations = new HashMap<>();
 	
-	private final HashMap< String, Object > locksMap = new HashMap<>();
+	private final Map< String, QueueLock > locksMap = new ConcurrentHashMap<>();
 	
 	private final ClassLoader parentClassLoader;
 	private final String[] includePaths;
 	private final String[] optionArgs;
+	private final int spawnLimit;
+	private final int sliceSteps;
 	private final String logPrefix;
 	private final Tracer tracer;
     private boolean check = false;
-	private final Timer timer;
+	private final Set< PendingTimeout > pendingTimeouts = ConcurrentHashMap.newKeySet();
 	// private long inputMessageTimeout = 24 * 60 * 60 * 1000; // 1 day
 	private final long persistentConnectionTimeout = 60 * 60 * 1000; // 1 hour
 	private final long awaitTerminationTimeout = 60 * 1000; // 1 minute
 	// private long persistentConnectionTimeout = 2 * 60 * 1000; // 4 minutes
 	// private long persistentConnectionTimeout = 1;
 
-	// 11 is the default initial capacity for PriorityQueue
-	private final Queue< WeakReference< TimeoutHandler > > timeoutHandlerQueue =
-		new PriorityQueue<>( 11, new TimeoutHandler.Comparator() );
-	
-	private final ExecutorService timeoutHandlerExecutor = Executors.newSingleThreadExecutor();
+	// Resolution of timeouts and scheduled tasks, in milliseconds
+	private static final long TIMER_TICK_DURATION = 10;
 	private final ExecutorService nativeExecutorService =
 		new JolieThreadPoolExecutor( new NativeJolieThreadFactory( this ) );
+	/*
+	 * Contexts run on a work-stealing pool in FIFO (async) mode: a context
+	 * started by a worker, e.g., a parallel branch or the receiver of a local
+	 * message, is queued on the deque of that worker, and idle workers steal
+	 * from the others instead of contending on a single queue.
+	 */
 	private final ExecutorService processExecutorService =
-		//Executors.newFixedThreadPool( 8, new JolieExecutionThreadFactory( this ) );
-		new JolieThreadPoolExecutor( new JolieExecutionThreadFactory( this ) );
+		new ForkJoinPool( Runtime.getRuntime().availableProcessors(), new JolieExecutionThreadFactory( this ), null, true );
+	// Runs operations of Java services that may block, null if they run on the calling thread
+	private final ExecutorService blockingExecutorService;
 
 	private final String programFilename;
 	private final File programDirectory;
-	private OutputPort monitor = null;
+	private volatile MonitoringPipeline monitoringPipeline = null;
 
 	public void setMonitor( OutputPort monitor )
 	{
-		this.monitor = monitor;
+		setMonitor( monitor, MonitoringPipeline.DEFAULT_CAPACITY, MonitoringPipeline.OverflowPolicy.DROP );
+	}
+
+	/**
+	 * Sends the monitoring events of this interpreter to monitor, through a
+	 * buffer of the given capacity.
+	 */
+	public synchronized void setMonitor( OutputPort monitor, int capacity, MonitoringPipeline.OverflowPolicy policy )
+	{
+		final MonitoringPipeline old = monitoringPipeline;
+		monitoringPipeline = new MonitoringPipeline( this, monitor, capacity, policy );
+		if ( old != null ) {
+			old.close( 0 );
+		}
 		fireMonitorEvent( new MonitorAttachedEvent() );
 	}
 	
 	public boolean isMonitoring()
 	{
-		return monitor != null;
+		return monitoringPipeline != null;
+	}
+
+	/**
+	 * Returns the number of monitoring events dropped because the monitor
+	 * could not keep up with them.
+	 */
+	public long droppedMonitorEvents()
+	{
+		final MonitoringPipeline pipeline = monitoringPipeline;
+		return ( pipeline == null ) ? 0 : pipeline.droppedEvents();
 	}
 	
 	/*public long inputMessageTimeout()
@@ -329,30 +420,14 @@ public class Interpreter
 		return tracer;
 	}
 	
+	/**
+	 * Enqueues event for the monitor, without waiting for it to be sent.
+	 */
 	public void fireMonitorEvent( MonitoringEvent event )
 	{
-		if ( monitor != null ) {
-			CommMessage m = CommMessage.createRequest( "pushEvent", "/", MonitoringEvent.toValue( event ) );
-			
-			try {
-				CommChannel channel = monitor.getCommChannel( event.context() );
-				channel.send( event.context(), m, (Void) -> {
-					try {
-						channel.release();
-					} catch( IOException e ) {
-						logWarning( e );
-					}
-					return null;
-				});
-				CommMessage response;
-				do {
-					response = channel.recvResponseFor( event.context(), m );
-				} while( response == null );
-			} catch( URISyntaxException e ) {
-				logWarning( e );
-			} catch( IOException e ) {
-				logWarning( e );
-			}
+		final MonitoringPipeline pipeline = monitoringPipeline;
+		if ( pipeline != null ) {
+			pipeline.offer( event );
 		}
 	}
 
@@ -361,65 +436,73 @@ public class Interpreter
 		return persistentConnectionTimeout;
 	}
 
+	/**
+	 * Returns the maximum number of contexts that a spawn statement runs
+	 * at the same time, or a non-positive number if there is no limit.
+	 * @return the maximum number of running contexts of a spawn statement
+	 */
+	public int spawnLimit()
+	{
+		return spawnLimit;
+	}
+
+	/**
+	 * Returns the maximum number of behaviours a context runs before
+	 * yielding its thread to the other contexts waiting for one.
+	 * @return the steps of a slice, or a non-positive number if there is no limit
+	 */
+	public int sliceSteps()
+	{
+		return sliceSteps;
+	}
+
 	public CorrelationEngine correlationEngine()
 	{
 		return correlationEngine;
 	}
 
-	public void schedule( TimerTask task, long delay )
+	/**
+	 * Runs task after delay milliseconds, on the timer thread shared by all interpreters.
+	 * Tasks should be short, and hand longer work over to an executor.
+	 * @return the handle for cancelling the task, or <code>null</code> if
+	 * this interpreter is exiting
+	 */
+	public Cancellable schedule( Runnable task, long delay )
 	{
-		if ( exiting == false ) {
-			timer.schedule( task, delay );
-		}
+		return newTimeout( task, delay );
 	}
 
+	/**
+	 * Schedules handler to be run when its timeout expires.
+	 * Handlers that are still pending when the interpreter exits are run
+	 * at that moment. Cancelling a handler removes it from the timer.
+	 */
 	public void addTimeoutHandler( TimeoutHandler handler )
 	{
-		synchronized( timeoutHandlerQueue ) {
-			timeoutHandlerQueue.add( new WeakReference< TimeoutHandler >( handler ) );
-			if ( timeoutHandlerQueue.size() == 1 ) {
-				schedule( new TimerTask() {
-					public void run()
-					{
-						synchronized( timeoutHandlerQueue ) {
-							checkForExpiredTimeoutHandlers();
-						}
-					}
-				}, handler.time() - System.currentTimeMillis() + 1 );
-			} else {
-				checkForExpiredTimeoutHandlers();
-			}
+		final long delay = Math.max( 0, handler.time() - System.currentTimeMillis() );
+		final Cancellable timeout = newTimeout( handler, delay );
+		if ( timeout == null ) {
+			// We are exiting
+			handler.run();
+		} else {
+			handler.setTimeout( timeout );
 		}
 	}
 
-	/*public void removeTimeoutHandler( TimeoutHandler handler )
+	private PendingTimeout newTimeout( Runnable task, long delay )
 	{
-		synchronized( timeoutHandlerQueue ) {
-			timeoutHandlerQueue.remove( handler );
-			checkForExpiredTimeoutHandlers();
+		if ( exiting ) {
+			return null;
 		}
-	}*/
-
-	private void checkForExpiredTimeoutHandlers()
-	{
-		long currentTime = System.currentTimeMillis();
-		WeakReference< TimeoutHandler > whandler = timeoutHandlerQueue.peek();
-		boolean keepRun = true;
-		TimeoutHandler handler;
-		while( whandler != null && keepRun ) {
-			handler = whandler.get();
-			if ( handler == null ) {
-				timeoutHandlerQueue.remove();
-				whandler = timeoutHandlerQueue.peek();
-			} else if ( handler.time() < currentTime || exiting ) {
-				// final TimeoutHandler h = handler;
-				timeoutHandlerExecutor.execute( handler );
-				timeoutHandlerQueue.poll();
-				whandler = timeoutHandlerQueue.peek();
-			} else {
-				keepRun = false;
-			}
+		final PendingTimeout pending = new PendingTimeout( task );
+		pendingTimeouts.add( pending );
+		pending.timeout = SharedTimer.INSTANCE.newTimeout( pending, delay, TimeUnit.MILLISECONDS );
+		if ( exiting ) {
+			// exit() may have missed it
+			pending.cancel();
+			return null;
 		}
+		return pending;
 	}
 	
 	/**
@@ -648,17 +731,29 @@ public class Interpreter
 			exitingLock.unlock();
 		}
 		
-		timer.cancel();
-		checkForExpiredTimeoutHandlers();
+		// Run the pending timeout handlers, e.g., to close persistent channels
+		for( PendingTimeout timeout : pendingTimeouts ) {
+			timeout.expireOnExit();
+		}
 		processExecutorService.shutdown();
 		nativeExecutorService.shutdown();
+		if ( blockingExecutorService != null ) {
+			blockingExecutorService.shutdown();
+		}
 		commCore.shutdown();
 		try {
 			nativeExecutorService.awaitTermination( terminationTimeout, TimeUnit.MILLISECONDS );
+			if ( blockingExecutorService != null ) {
+				blockingExecutorService.awaitTermination( terminationTimeout, TimeUnit.MILLISECONDS );
+			}
 		} catch ( InterruptedException e ) {}
 		try {
 			processExecutorService.awaitTermination( terminationTimeout, TimeUnit.MILLISECONDS );
 		} catch ( InterruptedException e ) {}
+		final MonitoringPipeline pipeline = monitoringPipeline;
+		if ( pipeline != null ) {
+			pipeline.close( terminationTimeout );
+		}
 		commCore.shutdownNetty();
 		free();
 		exitFuture.complete( null );
@@ -869,8 +964,13 @@ public class Interpreter
 		arguments = cmdParser.arguments();
         
 		this.correlationEngine = cmdParser.correlationAlgorithmType().createInstance( this );
-		commCore = new CommCore( this, cmdParser.connectionsLimit() /*, cmdParser.connectionsCache() */ );
+		commCore = new CommCore( this, cmdParser.connectionsLimit(), cmdParser.connectionsCache() );
 		includePaths = cmdParser.includePaths();
+		spawnLimit = cmdParser.spawnLimit();
+		sliceSteps = cmdParser.sliceSteps();
+		blockingExecutorService = cmdParser.elasticJavaExecutor()
+			? new ThreadPoolExecutor( 0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new NativeJolieThreadFactory( this ) )
+			: null;
 
 		StringBuilder builder = new StringBuilder();
 		builder.append( '[' );
@@ -886,7 +986,6 @@ public class Interpreter
 		
 		logger.setLevel( cmdParser.logLevel() );
 		
-		timer = new Timer( programFilename + "-Timer" );
 		exitingLock = new ReentrantLock();
 		exitingCondition = exitingLock.newCondition();
 
@@ -959,16 +1058,10 @@ public class Interpreter
 	 * @param id the global lock identifier
 	 * @return the global lock registered on this interpreter with the specified identifier
 	 */
-	public Object getLock( String id )
+	public QueueLock getLock( String id )
 	{
-		synchronized(locksMap) {
-			Object l = locksMap.get( id );
-			if ( l == null ) {
-				l = new Object();
-				locksMap.put( id, l );
-			}
-			return l;
-		}
+		final QueueLock l = locksMap.get( id );
+		return l == null ? locksMap.computeIfAbsent( id, k -> new QueueLock() ) : l;
 	}
 
 	public SessionStarter getSessionStarter( String operationName )
@@ -1153,6 +1246,34 @@ public class Interpreter
 	{
 		return nativeExecutorService;
 	}
+
+	/**
+	 * Returns the elastic executor that runs the operations of Java services,
+	 * which may block, when the interpreter has been started with
+	 * --javaexecutor elastic. Threads are created on demand and discarded
+	 * after one minute of inactivity, so blocking calls never hold the
+	 * threads running Jolie code.
+	 * @return the elastic executor, or null if Java services run on the calling thread
+	 */
+	public Executor blockingExecutor()
+	{
+		return blockingExecutorService;
+	}
+
+	/**
+	 * Runs a task that may block, on the elastic executor if there is one
+	 * (see {@link #blockingExecutor()}), or in the internal thread pool
+	 * otherwise.
+	 * @param r the Runnable object to execute
+	 */
+	public void executeBlocking( Runnable r )
+	{
+		if ( blockingExecutorService != null ) {
+			blockingExecutorService.execute( r );
+		} else {
+			nativeExecutorService.execute( r );
+		}
+	}
 	
 	public Future<?> runJolieThread( Runnable task )
 	{
@@ -22,31 +22,25 @@
 
 package jolie;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
 /**
- *
+ * A worker of the pool running the contexts of an interpreter.
  * @author Fabrizio Montesi
  */
-public class JolieExecutorThread extends Thread implements InterpreterThread
+public class JolieExecutorThread extends ForkJoinWorkerThread implements InterpreterThread
 {
-	private StatefulContext sessionContext;
 	private Interpreter interpreter;
 	
-	public JolieExecutorThread( Runnable r, Interpreter interpreter )
+	public JolieExecutorThread( ForkJoinPool pool, Interpreter interpreter )
 	{
-		super( r, interpreter.programFilename() + "-" + JolieThread.createThreadName() );
+		super( pool );
 		this.interpreter = interpreter;
+		setName( interpreter.programFilename() + "-" + JolieThread.createThreadName() );
+		setContextClassLoader( interpreter.getClassLoader() );
 	}
 
-	public final void sessionContext( StatefulContext ctx ) 
-	{
-		sessionContext = ctx;
-	}
-	
-	public final StatefulContext sessionContext() 
-	{
-		return sessionContext;
-	}
-	
 	@Override
 	public Interpreter interpreter()
 	{
@@ -35,6 +35,7 @@ public final class State implements Cloneable
 {
 	private final Value root;
 	private final ConcurrentHashMap< String, InternalLink > linksMap = new ConcurrentHashMap<>();
+	private volatile Runnable correlationListener = null;
 	
 	private State( Value root )
 	{
@@ -74,4 +75,26 @@ public final class State implements Cloneable
 	{
 		return root;
 	}
+
+	/**
+	 * Sets the listener to run when variables of this State that may be
+	 * used in correlation are aliased or replaced.
+	 * @param correlationListener the listener to run, or null
+	 */
+	public void setCorrelationListener( Runnable correlationListener )
+	{
+		this.correlationListener = correlationListener;
+	}
+
+	/**
+	 * Notifies the correlation listener of this State, if any, that some
+	 * of its variables have been aliased or replaced.
+	 */
+	public void correlationVariablesReplaced()
+	{
+		final Runnable listener = correlationListener;
+		if ( listener != null ) {
+			listener.run();
+		}
+	}
 }
@@ -16,6 +16,8 @@
  */
 package jolie;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
@@ -24,11 +26,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import jolie.behaviours.Behaviour;
 import jolie.behaviours.ScopeBehaviour;
 import jolie.behaviours.TransformationReason;
 import jolie.lang.Constants;
-import jolie.net.CommCore;
 import jolie.net.SessionMessage;
 import jolie.runtime.ExitingException;
 import jolie.runtime.FaultException;
@@ -47,6 +49,11 @@ import jolie.util.Pair;
 {
 
 	private static final AtomicLong idCounter = new AtomicLong( 1L );
+	// The context being run by the current thread
+	private static final ThreadLocal< StatefulContext > CURRENT = new ThreadLocal<>();
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+	private static final boolean cpuTimeSupported =
+		threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
 	
 	private final long id = idCounter.getAndIncrement();
 	private final jolie.State state;
@@ -55,6 +62,8 @@ import jolie.util.Pair;
 	protected final Deque< SessionMessage > uncorrelatedMessageQueue = new ArrayDeque<>();
 	private final Map< String, Deque< ExecutionContext > > messageWaiters =	new HashMap<>();
 	private boolean executionCompleted = false;
+	// Only updated while holding the monitor of this context
+	private volatile long cpuTime = 0;
 
 	private final static VariablePath typeMismatchPath;
 	private final static VariablePath ioExceptionPath;
@@ -73,7 +82,7 @@ import jolie.util.Pair;
 			.toVariablePath();
 	}
 		
-	private StatefulContext( Behaviour process, ExecutionContext parent, jolie.State state )
+	protected StatefulContext( Behaviour process, ExecutionContext parent, jolie.State state )
 	{
 		super( process, parent );
 		this.state = state;
@@ -91,16 +100,34 @@ import jolie.util.Pair;
 	@Override
 	public final void run()
 	{
-		Thread t = Thread.currentThread();
-		if ( t instanceof JolieExecutorThread ) {
-			((JolieExecutorThread)t).sessionContext( this );
-		} else if ( t instanceof CommCore.ExecutionContextThread ) {
-			((CommCore.ExecutionContextThread)t).executionContext( this );
+		// Contexts may run inline inside other contexts, e.g., parallel branches
+		final StatefulContext previous = CURRENT.get();
+		CURRENT.set( this );
+		try {
+			runProcessStack();
+		} finally {
+			CURRENT.set( previous );
 		}
-		
+	}
+
+	private void runProcessStack()
+	{
+		boolean yielded = false;
 //		System.out.println( String.format( "[%s][%s] - ", Thread.currentThread(), this ) +  "SessionContext Loop started" );
 		synchronized (this) {
+		if ( executionCompleted ) {
+			// A late resumption, e.g., for a response that was already consumed
+			return;
+		}
+		final long cpuStart = cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+		final int budget = interpreter().sliceSteps();
+		int steps = 0;
 		while( !processStack.isEmpty() && !pauseExecution ) {
+			if ( budget > 0 && ++steps > budget ) {
+				// Give way to the other contexts, see below
+				yielded = true;
+				break;
+			}
 			try {
 				try {
 					Behaviour p = processStack.pop();
@@ -127,6 +154,10 @@ import jolie.util.Pair;
 
 				try {
 					if ( p == null ) {
+						if ( handleUncaughtFault( f ) ) {
+							processStack.clear();
+							continue;
+						}
 						interpreter().logUnhandledFault( f );
 						throw f;
 					} else {
@@ -146,17 +177,53 @@ import jolie.util.Pair;
 				e.printStackTrace();
 			}
 		}
+		if ( cpuTimeSupported ) {
+			cpuTime += threadBean.getCurrentThreadCpuTime() - cpuStart;
 		}
-		
-		if (processStack.isEmpty() && !pauseExecution) {
+
+		if ( processStack.isEmpty() && !pauseExecution ) {
 			listeners.forEach( listener -> listener.onSessionExecuted( this ) );
 			markExecutionFinished();
 		}
-		
+
+		// Reset while holding the monitor: a resumption waiting for it
+		// (started after we paused) must find this context runnable.
 		pauseExecution = false;
+		}
+
+		if ( yielded ) {
+			// The slice used up its steps: run the rest after the contexts already waiting for a thread
+			start();
+		}
 //		System.out.println( String.format( "[%s][%s] - ", Thread.currentThread(), this ) +  "SessionContext Loop stopped: " + this.toString() );
 	}
 	
+	/**
+	 * Returns the CPU time spent running this context so far, including
+	 * the contexts it runs inline (e.g., the first branch of a parallel
+	 * composition).
+	 * @return the CPU time in nanoseconds, or -1 if the JVM does not
+	 * measure the CPU time of threads
+	 */
+	public long cpuTime()
+	{
+		return cpuTimeSupported ? cpuTime : -1;
+	}
+
+	/**
+	 * Called when a fault is not caught by any scope of this context.
+	 * Contexts that report their faults to somebody else, e.g., the branches
+	 * of a parallel composition, can override this method to take the fault
+	 * and end their execution normally.
+	 * @param fault the uncaught fault
+	 * @return true if the fault has been taken care of, false if it
+	 * should be logged and notified to the session listeners
+	 */
+	protected boolean handleUncaughtFault( FaultException fault )
+	{
+		return false;
+	}
+	
 	private void markExecutionFinished() {
 //		System.out.println( String.format( "[%s][%s] - ", Thread.currentThread(), this ) +  "SessionContext Marked as finished: " + this.toString() );
 		synchronized (completionLock) {
@@ -380,7 +447,7 @@ import jolie.util.Pair;
 				@Override
 				public void run( StatefulContext ctx ) throws FaultException, ExitingException
 				{
-					interpreter.logInfo( typeMismatchPath.getValue().strValue() );
+					interpreter.logInfo( typeMismatchPath.getValue( ctx ).strValue() );
 				}
 
 				@Override
@@ -402,7 +469,7 @@ import jolie.util.Pair;
 				@Override
 				public void run( StatefulContext ctx ) throws FaultException, ExitingException
 				{
-					interpreter.logInfo( ioExceptionPath.getValue().strValue() );
+					interpreter.logInfo( ioExceptionPath.getValue( ctx ).strValue() );
 				}
 
 				@Override
@@ -422,17 +489,40 @@ import jolie.util.Pair;
 	}
 
 	/***
-	 * Returns current Context.
-	 * @return
-	 * @deprecated
+	 * Returns the context being run by the current thread.
+	 * @return the current context, or null if the thread is not running one
+	 * @deprecated pass the context explicitly instead
 	 */
 	@Deprecated
 	public static final StatefulContext currentContext() {
-		Thread t = Thread.currentThread();
-		if (t instanceof JolieExecutorThread) {
-			return ((JolieExecutorThread)t).sessionContext();
-		} else if (t instanceof CommCore.ExecutionContextThread) 
-			return ((CommCore.ExecutionContextThread)t).executionContext();
-		return null;
+		return CURRENT.get();
+	}
+
+	/**
+	 * Binds ctx to the current thread, so that value links (see
+	 * {@link Value#createLink(VariablePath)}) can be resolved by code running
+	 * outside of a context, e.g., protocol codecs reading their configuration.
+	 * @param ctx the context to bind
+	 */
+	public static void setCurrentContext( StatefulContext ctx )
+	{
+		CURRENT.set( ctx );
+	}
+
+	/**
+	 * Evaluates task with this context bound to the current thread, so that
+	 * the value links of its state can be resolved from outside of it.
+	 * @param task the task to evaluate
+	 * @return the result of task
+	 */
+	public final < T > T evaluateBound( Supplier< T > task )
+	{
+		final StatefulContext previous = CURRENT.get();
+		CURRENT.set( this );
+		try {
+			return task.get();
+		} finally {
+			CURRENT.set( previous );
+		}
 	}
 }
@@ -34,7 +34,8 @@ public abstract class TransparentContext extends StatefulContext
 {
 	public TransparentContext( Behaviour process, ExecutionContext parent )
 	{
-		super( process, parent );
+		// Shares the state of the parent, there is no need to copy it
+		super( process, parent, parent.state() );
 	}
 
 	@Override
@@ -72,14 +72,14 @@ public class AddAssignmentBehaviour implements Behaviour, Expression
 		if ( ctx.isKilled() ) {
 			return;
 		}
-		varPath.getValue().add( expression.evaluate() );
+		varPath.getValue( ctx ).add( expression.evaluate( ctx ) );
 	}
 
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = varPath.getValue();
-		val.add( expression.evaluate() );
+		Value val = varPath.getValue( ctx );
+		val.add( expression.evaluate( ctx ) );
 		return val;
 	}
 
@@ -68,13 +68,13 @@ public class AssignmentBehaviour implements Behaviour, Expression
 	{
 		if ( ctx.isKilled() )
 			return;
-		varPath.getValue( ctx ).assignValue( expression.evaluate() );
+		varPath.getValue( ctx ).assignValue( expression.evaluate( ctx ) );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = varPath.getValue();
-		val.assignValue( expression.evaluate() );
+		Value val = varPath.getValue( ctx );
+		val.assignValue( expression.evaluate( ctx ) );
 		return val;
 	}
 	
@@ -54,7 +54,7 @@ public class DeepCopyBehaviour implements Behaviour
 		if ( rightExpression instanceof VariablePath ) {
 			leftPath.deepCopy( ctx, (VariablePath) rightExpression );
 		} else {
-			leftPath.getValue( ctx ).deepCopy( rightExpression.evaluate() );
+			leftPath.getValue( ctx ).deepCopy( rightExpression.evaluate( ctx ) );
 		}
 	}
 	
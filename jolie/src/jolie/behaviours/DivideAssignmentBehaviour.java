@@ -72,13 +72,13 @@ public class DivideAssignmentBehaviour implements Behaviour, Expression
 		if ( ctx.isKilled() ) {
 			return;
 		}
-		varPath.getValue( ctx ).divide( expression.evaluate() );
+		varPath.getValue( ctx ).divide( expression.evaluate( ctx ) );
 	}
 
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = varPath.getValue();
-		val.divide( expression.evaluate() );
+		Value val = varPath.getValue( ctx );
+		val.divide( expression.evaluate( ctx ) );
 		return val;
 	}
 
@@ -33,7 +33,7 @@ public final class ForBehaviour implements Behaviour
 		@Override
 		public void run( StatefulContext ctx ) throws FaultException, ExitingException
 		{
-			if ( condition.evaluate().boolValue() ) {
+			if ( condition.evaluate( ctx ).boolValue() ) {
 				ctx.executeNext( process , postStep );
 			}
 		}
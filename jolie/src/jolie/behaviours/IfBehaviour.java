@@ -86,7 +86,7 @@ public final class IfBehaviour implements Behaviour
 	
 		while( keepRun && i < pairs.length ) {
 			final CPPair pair = pairs[ i ];
-			if ( pair.condition().evaluate().boolValue() ) {
+			if ( pair.condition().evaluate( ctx ).boolValue() ) {
 				ctx.executeNext( pair.process() );
 				return;
 			}
@@ -47,7 +47,7 @@ public class InstallBehaviour implements Behaviour
 	public void run(StatefulContext ctx)
 	{
 		for( Pair< String, Behaviour > pair : pairs ) {
-			final Behaviour handler = pair.value().clone( new HandlerInstallationReason( pair.key() ) );
+			final Behaviour handler = pair.value().clone( new HandlerInstallationReason( pair.key(), ctx ) );
 			if ( pair.key() == null ) {
 				ctx.installCompensation( handler );
 			} else {
@@ -73,14 +73,14 @@ public class MultiplyAssignmentBehaviour implements Behaviour, Expression
 		if ( ctx.isKilled() ) {
 			return;
 		}
-		varPath.getValue().multiply( expression.evaluate() );
+		varPath.getValue( ctx ).multiply( expression.evaluate( ctx ) );
 	}
 
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = varPath.getValue();
-		val.multiply( expression.evaluate() );
+		Value val = varPath.getValue( ctx );
+		val.multiply( expression.evaluate( ctx ) );
 		return val;
 	}
 
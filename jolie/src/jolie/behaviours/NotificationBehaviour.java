@@ -95,6 +95,56 @@ public class NotificationBehaviour implements Behaviour
 		
 	}
 	
+	/**
+	 * Sends the notification as soon as a channel to the output port is
+	 * available, suspending the context meanwhile.
+	 */
+	private class NotificationSendBehaviour implements Behaviour {
+
+		private final CommMessage message;
+
+		public NotificationSendBehaviour( CommMessage message )
+		{
+			this.message = message;
+		}
+
+		@Override
+		public void run( StatefulContext ctx ) throws FaultException, ExitingException
+		{
+			try {
+				final CommChannel channel = outputPort.acquireCommChannel( ctx );
+				if ( channel == null ) {
+					ctx.executeNext( this );
+					ctx.pauseExecution();
+					return;
+				}
+				if ( ctx.isKilled() ) {
+					channel.release();
+					return;
+				}
+				send( ctx, channel, message );
+			} catch( IOException e ) {
+				throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			} catch( URISyntaxException e ) {
+				ctx.interpreter().logSevere( e );
+			}
+		}
+
+		@Override
+		public Behaviour clone( TransformationReason reason )
+		{
+			return new NotificationSendBehaviour( message );
+		}
+
+		@Override
+		public boolean isKillable()
+		{
+			// Kills are handled in run, to give back the acquired channel
+			return false;
+		}
+
+	}
+
 	private final String operationId;
 	private final OutputPort outputPort;
 	private final Expression outputExpression; // may be null
@@ -146,8 +196,8 @@ public class NotificationBehaviour implements Behaviour
 		try {
 			CommMessage message =
 				( outputExpression == null ) ?
-						CommMessage.createRequest( operationId, outputPort.getResourcePath(), Value.UNDEFINED_VALUE ) :
-						CommMessage.createRequest( operationId, outputPort.getResourcePath(), outputExpression.evaluate() );
+						CommMessage.createRequest( operationId, outputPort.getResourcePath( ctx ), Value.UNDEFINED_VALUE ) :
+						CommMessage.createRequest( operationId, outputPort.getResourcePath( ctx ), outputExpression.evaluate( ctx ) );
 			if ( oneWayDescription != null ) {
 				try  {
 				oneWayDescription.requestType().check( message.value() );
@@ -158,43 +208,44 @@ public class NotificationBehaviour implements Behaviour
 					throw( e );
 				}
 			}
-			CommChannel channel = outputPort.getCommChannel( ctx );
-
-			log( ctx.interpreter(), "SENDING", message );
-
-			channel.registerWaiterFor( ctx, message );
-			ctx.executeNext(new NotificationOnAckBehaviour(channel, message),
-				new SimpleBehaviour()
-				{
-				@Override
-				public void run( StatefulContext ctx ) throws FaultException, ExitingException
-				{
-					if ( channel != null ) {
-						try {
-							channel.release();
-						} catch( IOException e ) {
-							ctx.interpreter().logWarning( e );
-						}
-					}
-				}
-			});
-			channel.send( ctx, message, ( Void ) -> {
-				log( ctx.interpreter(), "SENT", message );
-				if ( ctx.interpreter().isMonitoring() ) {
-					ctx.interpreter().fireMonitorEvent( new OperationCallEvent( ctx, operationId, Long.toString(message.id()), OperationCallEvent.SUCCESS, "", outputPort.id(), message.value() ) );
-				}
-				
-				return null;
-			});
-			
-		} catch( IOException e ) {
-			throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			ctx.executeNext( new NotificationSendBehaviour( message ) );
 		} catch( URISyntaxException e ) {
 			ctx.interpreter().logSevere( e );
 		} catch( TypeCheckingException e ) {
 			throw new FaultException( Constants.TYPE_MISMATCH_FAULT_NAME, "TypeMismatch (" + operationId + "@" + outputPort.id() + "): " + e.getMessage() );
 		}
 	}
+
+	private void send( StatefulContext ctx, CommChannel channel, CommMessage message )
+		throws IOException
+	{
+		log( ctx.interpreter(), "SENDING", message );
+
+		channel.registerWaiterFor( ctx, message );
+		ctx.executeNext(new NotificationOnAckBehaviour(channel, message),
+			new SimpleBehaviour()
+			{
+			@Override
+			public void run( StatefulContext ctx ) throws FaultException, ExitingException
+			{
+				if ( channel != null ) {
+					try {
+						channel.release();
+					} catch( IOException e ) {
+						ctx.interpreter().logWarning( e );
+					}
+				}
+			}
+		});
+		channel.send( ctx, message, ( Void ) -> {
+			log( ctx.interpreter(), "SENT", message );
+			if ( ctx.interpreter().isMonitoring() ) {
+				ctx.interpreter().fireMonitorEvent( new OperationCallEvent( ctx, operationId, Long.toString(message.id()), OperationCallEvent.SUCCESS, "", outputPort.id(), message.value() ) );
+			}
+			
+			return null;
+		});
+	}
 	
 	@Override
 	public boolean isKillable()
@@ -28,17 +28,23 @@ import jolie.runtime.ParallelExecution;
 public class ParallelBehaviour implements Behaviour
 {
 	final private Behaviour[] children;
+	// The children wrapped in their own scopes, shared by all executions
+	final private Behaviour[] branches;
 
 	public ParallelBehaviour( Behaviour[] children )
 	{
 		this.children = children;
+		this.branches = new Behaviour[ children.length ];
+		for( int i = 0; i < children.length; i++ ) {
+			branches[ i ] = new ScopeBehaviour( hashCode() + "-ParallelBranch-" + i, children[ i ], true, false );
+		}
 	}
 
 	@Override
 	public void run(StatefulContext ctx)
 		throws FaultException
 	{
-		(new ParallelExecution( children, ctx )).run();
+		(new ParallelExecution( branches, ctx )).run();
 	}
 	
 	@Override
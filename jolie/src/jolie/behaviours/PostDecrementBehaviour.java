@@ -57,9 +57,9 @@ public class PostDecrementBehaviour implements Behaviour, Expression
 	}
 	
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = path.getValue();
+		Value val = path.getValue( ctx );
 		Value orig = Value.create( val.intValue() );
 		val.setValue( val.intValue() - 1 );
 		return orig;
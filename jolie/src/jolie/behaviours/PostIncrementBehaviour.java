@@ -55,9 +55,9 @@ public class PostIncrementBehaviour implements Behaviour, Expression
 	}
 	
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		final Value val = path.getValue();
+		final Value val = path.getValue( ctx );
 		final Value orig = Value.create( val.intValue() );
 		val.setValue( val.intValue() + 1 );
 		return orig;
@@ -57,9 +57,9 @@ public class PreDecrementBehaviour implements Behaviour, Expression
 	}
 	
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = path.getValue();
+		Value val = path.getValue( ctx );
 		val.setValue( val.intValue() - 1 );
 		return val;
 	}
@@ -55,9 +55,9 @@ public class PreIncrementBehaviour implements Behaviour, Expression
 	}
 	
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		final Value val = path.getValue();
+		final Value val = path.getValue( ctx );
 		val.setValue( val.intValue() + 1 );
 		return val;
 	}
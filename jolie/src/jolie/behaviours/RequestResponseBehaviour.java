@@ -128,7 +128,7 @@ public class RequestResponseBehaviour implements InputOperationBehaviour
 					response =
 						CommMessage.createResponse(
 							message,
-							( outputExpression == null ) ? Value.UNDEFINED_VALUE : outputExpression.evaluate()
+							( outputExpression == null ) ? Value.UNDEFINED_VALUE : outputExpression.evaluate( ctx )
 						);
 						responseStatus = OperationEndedEvent.SUCCESS;
 						details = "";
@@ -48,7 +48,7 @@ public class RunBehaviour implements Behaviour
 		throw new FaultException( "UnsupportedStatement" );
 		/*if ( ExecutionThread.currentThread().isKilled() )
 			return;
-		Value val = expression.evaluate();
+		Value val = expression.evaluate( ctx );
 		if ( val.isString() ) {
 			try {
 				String codeStr = val.strValue();
@@ -142,6 +142,56 @@ public class SolicitResponseBehaviour implements Behaviour
 		
 	}
 	
+	/**
+	 * Sends the request as soon as a channel to the output port is
+	 * available, suspending the context meanwhile.
+	 */
+	private class SolicitResponseSendBehaviour implements Behaviour {
+
+		private final CommMessage message;
+
+		public SolicitResponseSendBehaviour( CommMessage message )
+		{
+			this.message = message;
+		}
+
+		@Override
+		public void run( StatefulContext ctx ) throws FaultException, ExitingException
+		{
+			try {
+				final CommChannel channel = outputPort.acquireCommChannel( ctx );
+				if ( channel == null ) {
+					ctx.executeNext( this );
+					ctx.pauseExecution();
+					return;
+				}
+				if ( ctx.isKilled() ) {
+					channel.release();
+					return;
+				}
+				send( ctx, channel, message );
+			} catch( IOException e ) {
+				throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			} catch( URISyntaxException e ) {
+				ctx.interpreter().logSevere( e );
+			}
+		}
+
+		@Override
+		public Behaviour clone( TransformationReason reason )
+		{
+			return new SolicitResponseSendBehaviour( message );
+		}
+
+		@Override
+		public boolean isKillable()
+		{
+			// Kills are handled in run, to give back the acquired channel
+			return false;
+		}
+
+	}
+
 	public SolicitResponseBehaviour(
 			String operationId,
 			OutputPort outputPort,
@@ -195,8 +245,8 @@ public class SolicitResponseBehaviour implements Behaviour
 			CommMessage message =
 				CommMessage.createRequest(
 					operationId,
-					outputPort.getResourcePath(),
-					( outputExpression == null ) ? Value.UNDEFINED_VALUE : outputExpression.evaluate()
+					outputPort.getResourcePath( ctx ),
+					( outputExpression == null ) ? Value.UNDEFINED_VALUE : outputExpression.evaluate( ctx )
 				);
 
 			if ( types.requestType() != null ) {
@@ -210,43 +260,44 @@ public class SolicitResponseBehaviour implements Behaviour
 				}
 			}
 			
-			CommChannel channel = outputPort.getCommChannel( ctx );
-			
-			log( ctx, "SENDING", message );
-			
-			ctx.executeNext( new SolicitResponseOnReceiveBehaviour(channel, message),
-				new SimpleBehaviour()
-				{
-				@Override
-				public void run( StatefulContext ctx ) throws FaultException, ExitingException
-				{
-					if ( channel != null ) {
-						try {
-							channel.release();
-						} catch( IOException e ) {
-							ctx.interpreter().logWarning( e );
-						}
-					}
-				}
-			});
-			
-			channel.registerWaiterFor( ctx, message );
-			channel.send( ctx, message, (Void) -> {
-				log( ctx, "SENT", message );
-				if ( ctx.interpreter().isMonitoring() ) {
-					ctx.interpreter().fireMonitorEvent( new OperationCallEvent( ctx, operationId, Long.toString ( message.id() ), OperationCallEvent.SUCCESS, "", outputPort.id(), message.value() ) );
-				}
-				return null;
-			});
-			
-		} catch( IOException e ) {
-			throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			ctx.executeNext( new SolicitResponseSendBehaviour( message ) );
 		} catch( URISyntaxException e ) {
 			ctx.interpreter().logSevere( e );
 		} catch( TypeCheckingException e ) {			
 			throw new FaultException( Constants.TYPE_MISMATCH_FAULT_NAME, "Output message TypeMismatch (" + operationId + "@" + outputPort.id() + "): " + e.getMessage() );
 		}
 	}
+
+	private void send( StatefulContext ctx, CommChannel channel, CommMessage message )
+		throws IOException
+	{
+		log( ctx, "SENDING", message );
+		
+		ctx.executeNext( new SolicitResponseOnReceiveBehaviour(channel, message),
+			new SimpleBehaviour()
+			{
+			@Override
+			public void run( StatefulContext ctx ) throws FaultException, ExitingException
+			{
+				if ( channel != null ) {
+					try {
+						channel.release();
+					} catch( IOException e ) {
+						ctx.interpreter().logWarning( e );
+					}
+				}
+			}
+		});
+		
+		channel.registerWaiterFor( ctx, message );
+		channel.send( ctx, message, (Void) -> {
+			log( ctx, "SENT", message );
+			if ( ctx.interpreter().isMonitoring() ) {
+				ctx.interpreter().fireMonitorEvent( new OperationCallEvent( ctx, operationId, Long.toString ( message.id() ), OperationCallEvent.SUCCESS, "", outputPort.id(), message.value() ) );
+			}
+			return null;
+		});
+	}
 	
 	@Override
 	public boolean isKillable()
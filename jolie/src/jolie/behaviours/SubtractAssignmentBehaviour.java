@@ -73,14 +73,14 @@ public class SubtractAssignmentBehaviour implements Behaviour, Expression
 			return;
 		}
 
-		varPath.getValue( ctx ).subtract( expression.evaluate() );
+		varPath.getValue( ctx ).subtract( expression.evaluate( ctx ) );
 	}
 
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = varPath.getValue();
-		val.subtract( expression.evaluate() );
+		Value val = varPath.getValue( ctx );
+		val.subtract( expression.evaluate( ctx ) );
 		return val;
 	}
 
@@ -21,101 +21,62 @@
 
 package jolie.behaviours;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Queue;
+import java.util.Collections;
 import jolie.StatefulContext;
 import jolie.lang.Constants;
 import jolie.runtime.ExitingException;
 import jolie.runtime.FaultException;
+import jolie.runtime.QueueLock;
 import jolie.runtime.Value;
 import jolie.runtime.VariablePathBuilder;
 import jolie.util.Pair;
 
+/**
+ * Executes a process while holding a lock of the interpreter
+ * (see {@link jolie.Interpreter#getLock(String)}).
+ * Sessions that find the lock taken are suspended, and resumed in
+ * arrival order as the lock is handed over to them.
+ * The behaviour executed under the lock is built once, and releases the
+ * lock both on completion and on faults, which are then rethrown.
+ */
 public class SynchronizedBehaviour implements Behaviour
 {
 	final private String id;
 	final private Behaviour process;
+	final private Behaviour lockedBehaviour;
 	
-	final private static HashMap<Object, Boolean> lockStates = new HashMap<>();
-	final private static HashMap<Object, Queue<StatefulContext>> lockQueues = new HashMap<>();
-	
-	private class SynchronizedExecutionBehaviour extends SimpleBehaviour {
-		
+	private class CatchBehaviour extends SimpleBehaviour
+	{
 		private final String scopeId;
-		private FaultException fault = null;
-		
-		private final CatchBehaviour catchBehaviour = new CatchBehaviour();
-		private final FinallyBehaviour finallyBehaviour = new FinallyBehaviour();
 
-		public SynchronizedExecutionBehaviour( Behaviour behaviour )
+		private CatchBehaviour( String scopeId )
 		{
-			this.scopeId = this.hashCode() + "-" + "-SynchronizedScope";
+			this.scopeId = scopeId;
 		}
-		
+
 		@Override
 		public void run( StatefulContext ctx ) throws FaultException, ExitingException
 		{
-			ArrayList<Pair<String, Behaviour>> faultHandlers = new ArrayList<>();
-			faultHandlers.add( new Pair( Constants.Keywords.DEFAULT_HANDLER_NAME, catchBehaviour ) );
-			Behaviour scopedBehaviour = new SequentialBehaviour(new Behaviour[] {
-				new ScopeBehaviour(
-					scopeId,
-					new SequentialBehaviour(new Behaviour[] {
-						new InstallBehaviour( faultHandlers ),
-						process
-					}),
-					true, false
-				),
-				finallyBehaviour
-			});
-			ctx.executeNext( scopedBehaviour );
+			Value scopeValue = new VariablePathBuilder( false ).add( scopeId, 0 ).toVariablePath().getValue( ctx );
+			String faultName = scopeValue.getFirstChild( Constants.Keywords.DEFAULT_HANDLER_NAME ).strValue();
+			Value faultValue = scopeValue.getFirstChild( faultName );
+			ctx.interpreter().getLock( id ).release();
+			throw new FaultException( faultName, faultValue );
 		}
-		
-		private class CatchBehaviour extends SimpleBehaviour {
 
-			@Override
-			public void run( StatefulContext ctx ) throws FaultException, ExitingException
-			{
-				Value scopeValue = new VariablePathBuilder( false ).add( scopeId, 0 ).toVariablePath().getValue( ctx );
-				Value defaultFaultValue = scopeValue.getChildren( Constants.Keywords.DEFAULT_HANDLER_NAME ).get( 0 );
-				Value userFaultValueValue = scopeValue.getChildren( defaultFaultValue.strValue() ).get( 0 );
-				fault = new FaultException( defaultFaultValue.strValue(), userFaultValueValue );
-			}
+		@Override
+		public Behaviour clone( TransformationReason reason )
+		{
+			return this;
+		}
+	}
 
-			@Override
-			public Behaviour clone( TransformationReason reason )
-			{
-				return this;
-			}
-			
-		}		
-		private class FinallyBehaviour extends SimpleBehaviour {
-			
-			@Override
-			public void run( StatefulContext ctx ) throws FaultException, ExitingException
-			{
-				Object lock = ctx.interpreter().getLock( id );
-				synchronized( lock ) {
-					if ( !getState( lock ) ) {
-						throw new IllegalStateException("This synchronized block is not running");
-					} else {
-//						System.out.println( ">> Release lock: " + id + " - " + lock.hashCode() );
-						setState( lock, false );
-						Queue<StatefulContext> waitingContexts = getLockQueue( lock );
-						if (!waitingContexts.isEmpty()){
-//							System.out.println( ">> wakeup waiter for lock: " + id + " - " + lock.hashCode() );
-							waitingContexts.poll().start();
-						}
-					}
-				}
-				
-				if (fault != null) {
-					throw fault;
-				}
-			}
-			
+	private class ReleaseBehaviour extends SimpleBehaviour
+	{
+		@Override
+		public void run( StatefulContext ctx ) throws FaultException, ExitingException
+		{
+			ctx.interpreter().getLock( id ).release();
 		}
 	}
 	
@@ -123,6 +84,20 @@ public class SynchronizedBehaviour implements Behaviour
 	{
 		this.id = id;
 		this.process = process;
+		final String scopeId = hashCode() + "-SynchronizedScope";
+		this.lockedBehaviour = new SequentialBehaviour( new Behaviour[] {
+			new ScopeBehaviour(
+				scopeId,
+				new SequentialBehaviour( new Behaviour[] {
+					new InstallBehaviour( Collections.singletonList(
+						new Pair<>( Constants.Keywords.DEFAULT_HANDLER_NAME, new CatchBehaviour( scopeId ) )
+					) ),
+					process
+				} ),
+				true, false
+			),
+			new ReleaseBehaviour()
+		} );
 	}
 	
 	@Override
@@ -135,39 +110,17 @@ public class SynchronizedBehaviour implements Behaviour
 	public void run(StatefulContext ctx)
 		throws FaultException, ExitingException
 	{
-//		ctx.executeNext( process );
-		Object lock = ctx.interpreter().getLock( id );
-		synchronized ( lock ) {
-			if ( !getState( lock ) ) {
-//				System.out.println( ">> Lock lock: " + id + " - " + lock.hashCode() );
-				setState( lock, true );
-				ctx.executeNext( new SynchronizedExecutionBehaviour( process ) );
-			} else {
-//				System.out.println( ">> Wait for lock: " + id + " - " + lock.hashCode() );
-				ctx.pauseExecution();
-				ctx.executeNext( this );
-				getLockQueue( lock ).add( ctx );
-			}
+		final QueueLock lock = ctx.interpreter().getLock( id );
+		ctx.executeNext( lockedBehaviour );
+		if ( !lock.acquire( ctx ) ) {
+			// We are started again by the session releasing the lock to us
+			ctx.pauseExecution();
 		}
 	}
 		
-	private void setState(Object lock, boolean state) {
-		lockStates.put( lock, state );
-	}
-
-	private Boolean getState(Object lock) {
-		lockStates.putIfAbsent( lock, false );
-		return lockStates.get( lock );
-	}
-		
-	private Queue<StatefulContext> getLockQueue(Object lock) {
-		lockQueues.putIfAbsent( lock, new ArrayDeque<>() );
-		return lockQueues.get( lock );
-	}
-		
 	@Override
 	public boolean isKillable()
 	{
 		return process.isKillable();
 	}
-}
\ No newline at end of file
+}
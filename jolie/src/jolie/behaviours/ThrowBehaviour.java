@@ -53,7 +53,7 @@ public class ThrowBehaviour implements Behaviour
 		if ( expression == null ) {
 			throw new FaultException( faultName );
 		} else {
-			throw new FaultException( faultName, expression.evaluate() );
+			throw new FaultException( faultName, expression.evaluate( ctx ) );
 		}
 	}
 	
@@ -54,7 +54,7 @@ public class WhileBehaviour implements Behaviour
 			return;
 		}
 
-		if( condition.evaluate().boolValue() ) {
+		if( condition.evaluate( ctx ).boolValue() ) {
 			ctx.executeNext( process, this );
 		}
 	}
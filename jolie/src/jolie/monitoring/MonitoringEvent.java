@@ -89,6 +89,12 @@ public class MonitoringEvent implements ValueConverter
 		);
 	}
 	
+	// Used by JavaService for monitors receiving MonitoringEvent parameters
+	public static MonitoringEvent fromValue( Value value )
+	{
+		return fromValue( null, value );
+	}
+	
 	public static Value toValue( MonitoringEvent e )
 	{
 		Value ret = Value.create();
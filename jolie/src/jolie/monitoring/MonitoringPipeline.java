@@ -0,0 +1,278 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by agent <agent@local>                             *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package jolie.monitoring;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import jolie.Interpreter;
+import jolie.NativeJolieThread;
+import jolie.StatefulContext;
+import jolie.net.CommChannel;
+import jolie.net.CommMessage;
+import jolie.net.ports.OutputPort;
+
+/**
+ * Ships monitoring events to a monitor in the background.
+ *
+ * Events are buffered in a bounded lock-free ring, so that firing an
+ * event never waits for the monitor. A drainer thread takes up to
+ * {@value #BATCH_SIZE} buffered events at a time and sends them over a
+ * single channel, one request per event, pipelined: all the events of a
+ * batch are sent before collecting their acknowledgements. When the
+ * ring is full, events are either dropped (and counted) or the firing
+ * thread waits for free space, depending on the {@link OverflowPolicy}.
+ * Events that the monitor does not acknowledge in time are counted as
+ * dropped as well.
+ */
+public class MonitoringPipeline
+{
+	public enum OverflowPolicy
+	{
+		DROP, BLOCK;
+
+		public static OverflowPolicy fromString( String name )
+		{
+			return "block".equalsIgnoreCase( name ) ? BLOCK : DROP;
+		}
+	}
+
+	public static final int DEFAULT_CAPACITY = 4096;
+	private static final int BATCH_SIZE = 256;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+	private static final long ACK_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos( 10 );
+
+	private final Interpreter interpreter;
+	private final OutputPort monitor;
+	private final OverflowPolicy policy;
+
+	/*
+	 * Bounded multi-producer ring: the slot at position p is free when its
+	 * sequence is p, and holds the event for position p when it is p + 1.
+	 */
+	private final int mask;
+	private final AtomicReferenceArray< MonitoringEvent > events;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong( 0 );
+	private long head = 0; // Only accessed by the drainer
+
+	private final AtomicLong dropped = new AtomicLong( 0 );
+	private final Thread drainer;
+	private final Runnable wakeUpDrainer;
+	private volatile boolean drainerParked = false;
+	private volatile boolean closed = false;
+
+	/**
+	 * @param capacity the size of the ring, rounded up to a power of two
+	 */
+	public MonitoringPipeline( Interpreter interpreter, OutputPort monitor, int capacity, OverflowPolicy policy )
+	{
+		this.interpreter = interpreter;
+		this.monitor = monitor;
+		this.policy = policy;
+		final int size = Integer.highestOneBit( Math.max( 2, capacity ) - 1 ) << 1;
+		this.mask = size - 1;
+		this.events = new AtomicReferenceArray<>( size );
+		this.sequences = new AtomicLongArray( size );
+		for( int i = 0; i < size; i++ ) {
+			sequences.set( i, i );
+		}
+		// An interpreter thread, as releasing channels needs the interpreter
+		this.drainer = new NativeJolieThread( interpreter, "Monitor" ) {
+			@Override
+			public void run()
+			{
+				drain();
+			}
+		};
+		this.drainer.setDaemon( true );
+		this.wakeUpDrainer = () -> LockSupport.unpark( drainer );
+		this.drainer.start();
+	}
+
+	/**
+	 * Enqueues event for the monitor.
+	 * @return <code>false</code> if the event has been dropped
+	 */
+	public boolean offer( MonitoringEvent event )
+	{
+		while( !tryOffer( event ) ) {
+			if ( policy == OverflowPolicy.DROP || closed ) {
+				dropped.incrementAndGet();
+				return false;
+			}
+			wakeDrainer();
+			Thread.yield();
+		}
+		wakeDrainer();
+		return true;
+	}
+
+	/**
+	 * Returns the number of events dropped because the ring was full, or
+	 * because the monitor did not acknowledge them.
+	 */
+	public long droppedEvents()
+	{
+		return dropped.get();
+	}
+
+	/**
+	 * Stops accepting events. The events already enqueued are still sent,
+	 * for at most timeout milliseconds.
+	 */
+	public void close( long timeout )
+	{
+		closed = true;
+		LockSupport.unpark( drainer );
+		try {
+			drainer.join( timeout );
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private boolean tryOffer( MonitoringEvent event )
+	{
+		long pos;
+		int index;
+		while( true ) {
+			pos = tail.get();
+			index = (int) pos & mask;
+			final long diff = sequences.get( index ) - pos;
+			if ( diff == 0 ) {
+				if ( tail.compareAndSet( pos, pos + 1 ) ) {
+					break;
+				}
+			} else if ( diff < 0 ) {
+				return false; // Full
+			}
+		}
+		events.lazySet( index, event );
+		sequences.set( index, pos + 1 );
+		return true;
+	}
+
+	private MonitoringEvent poll()
+	{
+		final int index = (int) head & mask;
+		if ( sequences.get( index ) != head + 1 ) {
+			return null;
+		}
+		final MonitoringEvent event = events.get( index );
+		events.lazySet( index, null );
+		sequences.set( index, head + mask + 1 );
+		head++;
+		return event;
+	}
+
+	private void wakeDrainer()
+	{
+		if ( drainerParked ) {
+			LockSupport.unpark( drainer );
+		}
+	}
+
+	private void drain()
+	{
+		final List< MonitoringEvent > batch = new ArrayList<>( BATCH_SIZE );
+		while( true ) {
+			MonitoringEvent event;
+			while( batch.size() < BATCH_SIZE && (event=poll()) != null ) {
+				batch.add( event );
+			}
+			if ( !batch.isEmpty() ) {
+				ship( batch );
+				batch.clear();
+			} else if ( closed ) {
+				return;
+			} else {
+				drainerParked = true;
+				if ( sequences.get( (int) head & mask ) != head + 1 ) {
+					LockSupport.parkNanos( this, IDLE_PARK_NANOS );
+				}
+				drainerParked = false;
+			}
+		}
+	}
+
+	/*
+	 * Sends the events in batch over one channel, and then waits for their
+	 * acknowledgements. Events that are not acknowledged are dropped.
+	 */
+	private void ship( List< MonitoringEvent > batch )
+	{
+		// The monitor port is global, any context can evaluate it
+		final StatefulContext ctx = interpreter.initContext();
+		final List< CommMessage > requests = new ArrayList<>( batch.size() );
+		int acknowledged = 0;
+		CommChannel channel = null;
+		try {
+			channel = monitor.getCommChannel( ctx );
+			for( MonitoringEvent event : batch ) {
+				final CommMessage request = CommMessage.createRequest( "pushEvent", "/", MonitoringEvent.toValue( event ) );
+				channel.registerWaiterFor( ctx, request, wakeUpDrainer );
+				channel.send( ctx, request );
+				requests.add( request );
+			}
+			final long deadline = System.nanoTime() + ACK_TIMEOUT_NANOS;
+			for( CommMessage request : requests ) {
+				awaitAck( ctx, channel, request, deadline );
+				acknowledged++;
+			}
+		} catch( URISyntaxException | IOException e ) {
+			interpreter.logWarning( e );
+		} finally {
+			dropped.addAndGet( batch.size() - acknowledged );
+			if ( channel != null ) {
+				try {
+					channel.release();
+				} catch( IOException e ) {
+					interpreter.logWarning( e );
+				}
+			}
+		}
+	}
+
+	private void awaitAck( StatefulContext ctx, CommChannel channel, CommMessage request, long deadline )
+		throws IOException
+	{
+		CommMessage response;
+		while( (response=channel.recvResponseFor( ctx, request )) == null ) {
+			final long remaining = deadline - System.nanoTime();
+			if ( remaining <= 0 ) {
+				throw new IOException( "The monitor did not acknowledge event " + request.id() );
+			}
+			// Channels that can not wake the drainer up are polled
+			LockSupport.parkNanos( this, Math.min( remaining, IDLE_PARK_NANOS ) );
+		}
+		if ( response.isFault() ) {
+			interpreter.logWarning( response.fault() );
+		}
+	}
+}
@@ -25,6 +25,9 @@ public class SessionEndedEvent extends MonitoringEvent {
 
 		data().getFirstChild( "processId" ).setValue( sessionContext.getSessionId() );
 		data().getFirstChild( "operationName" ).setValue( operationName );
+		if ( sessionContext.cpuTime() >= 0 ) {
+			data().getFirstChild( "cpuTime" ).setValue( sessionContext.cpuTime() );
+		}
 
 	}
 }
@@ -44,25 +44,37 @@ public abstract class AbstractCommChannel extends CommChannel
 	private static final long RECEIVER_KEEP_ALIVE = 20000; // msecs
 
 	private final Map< Long, CommMessage> pendingResponses = new HashMap<>();
-	private final Map< Long, ExecutionContext> waiters = new HashMap<>();
+	private final Map< Long, Waiter> waiters = new HashMap<>();
 	private final List< CommMessage> pendingGenericResponses = new LinkedList<>();
 
 	private final Object responseRecvMutex = new Object();
 
+	private static class Waiter
+	{
+		private final ExecutionContext context;
+		private final Runnable wakeUp;
+
+		private Waiter( ExecutionContext context, Runnable wakeUp )
+		{
+			this.context = context;
+			this.wakeUp = wakeUp;
+		}
+	}
+
 	@Override
 	public StatefulContext getContextFor( Long id, boolean isRequest )
 	{
-		ExecutionContext ctx = null;
+		Waiter waiter;
 		synchronized( responseRecvMutex ) {
 			if (!isRequest) {
 //				System.out.println( "[" + Thread.currentThread().getName() + "] GET CONTEXT FOR: " + id );
 				if ( id == CommMessage.GENERIC_ID) {
-					ctx = waiters.entrySet().iterator().next().getValue();
+					waiter = waiters.entrySet().iterator().next().getValue();
 				} else {
-					ctx = waiters.get( id );
+					waiter = waiters.get( id );
 				}
-				if (ctx instanceof StatefulContext)
-					return (StatefulContext) ctx;
+				if (waiter != null && waiter.context instanceof StatefulContext)
+					return (StatefulContext) waiter.context;
 				assert false;
 				return null;
 			} else {
@@ -72,14 +84,27 @@ public abstract class AbstractCommChannel extends CommChannel
 		}
 	}
 
+	@Override
 	public void registerWaiterFor( ExecutionContext ctx, CommMessage request )
 		throws IOException
+	{
+		addWaiter( ctx, request, ctx::start );
+	}
+
+	@Override
+	public void registerWaiterFor( StatefulContext ctx, CommMessage request, Runnable wakeUp )
+		throws IOException
+	{
+		addWaiter( ctx, request, wakeUp );
+	}
+
+	private void addWaiter( ExecutionContext ctx, CommMessage request, Runnable wakeUp )
 	{
 		synchronized( responseRecvMutex ) {
 //			System.out.println( "[" + Thread.currentThread().getName() + "] REGISTER WAITER FOR: " + request.id() + "(" + ctx + ")");
 			// Ingore responses
 			if ( !waiters.containsKey( request.id() ) )
-				waiters.put( request.id(), ctx );
+				waiters.put( request.id(), new Waiter( ctx, wakeUp ) );
 		}
 	}
 	
@@ -108,25 +133,36 @@ public abstract class AbstractCommChannel extends CommChannel
 	@Override
 	protected void recievedResponse( CommMessage response )
 	{
-		if ( response.hasGenericId() ) {
-			handleGenericMessage( response );
-		} else {
-			handleMessage( response );
+		synchronized( responseRecvMutex ) {
+			if ( response.hasGenericId() ) {
+				handleGenericMessage( response );
+			} else {
+				handleMessage( response );
+			}
+		}
+	}
+
+	/**
+	 * Called when the underlying connection has been closed: the contexts
+	 * still waiting for a response receive an IOException fault.
+	 */
+	protected void connectionClosed()
+	{
+		synchronized( responseRecvMutex ) {
+			throwIOExceptionFault( new IOException( "Connection closed" ) );
 		}
 	}
 
 	private void handleGenericMessage( CommMessage response )
 	{
-		ExecutionContext waitingContext;
 		// Add the message in any case, so that the message can be fetched from 
 		// the queue by the ExecutionContext.
 		pendingGenericResponses.add( response );
 		if ( !waiters.isEmpty() ) {
-			Entry< Long, ExecutionContext> entry 
+			Entry< Long, Waiter> entry 
 				= waiters.entrySet().iterator().next();
-			waitingContext = entry.getValue();
 			waiters.remove( entry.getKey() );
-			waitingContext.start();
+			entry.getValue().wakeUp.run();
 //			synchronized( waitingContext ) {
 //				monitor.response = new CommMessage(
 //					entry.getKey(),
@@ -142,20 +178,18 @@ public abstract class AbstractCommChannel extends CommChannel
 
 	private void handleMessage( CommMessage response )
 	{
-		ExecutionContext waitingContext;
+		Waiter waiter;
 		// Add to queue in any case. See handleGenericMessage.
 		pendingResponses.put( response.id(), response );
-		if ( (waitingContext = waiters.remove( response.id() )) != null ) {
-			waitingContext.start();
+		if ( (waiter = waiters.remove( response.id() )) != null ) {
+			waiter.wakeUp.run();
 		}
 	}
 
 	private void throwIOExceptionFault( IOException e )
 	{
 		if ( waiters.isEmpty() == false ) {
-			ExecutionContext waitingContext;
-			for( Entry< Long, ExecutionContext> entry : waiters.entrySet() ) {
-				waitingContext = entry.getValue();
+			for( Entry< Long, Waiter> entry : waiters.entrySet() ) {
 				pendingResponses.put( entry.getKey(),
 					new CommMessage(
 						entry.getKey(),
@@ -166,7 +200,7 @@ public abstract class AbstractCommChannel extends CommChannel
 						false
 					)
 				);
-				waitingContext.start();
+				entry.getValue().wakeUp.run();
 			}
 			waiters.clear();
 		}
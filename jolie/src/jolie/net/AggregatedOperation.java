@@ -238,7 +238,7 @@ public abstract class AggregatedOperation
 			CommChannel oChannel = null;
 			try {
 				oChannel = outputPort.getNewCommChannel( ctx );
-				final CommMessage requestToAggregated = outputPort.createAggregatedRequest( requestMessage );
+				final CommMessage requestToAggregated = outputPort.createAggregatedRequest( ctx, requestMessage );
 				oChannel.send( ctx, requestToAggregated );
 				final CommMessage response = oChannel.recvResponseFor( ctx, requestToAggregated );
 				channel.send( ctx, new CommMessage( requestMessage.id(), response.operationName(), response.resourcePath(), response.value(), response.fault(), response.isRequest() ) );
@@ -253,6 +253,16 @@ public abstract class CommChannel
 		throws IOException
 	{ }
 
+	/**
+	 * Registers wakeUp to be run when the response for request is received,
+	 * for callers that wait for it outside of a session. Protocols read the
+	 * port configuration from ctx, which is not resumed. Channels that do
+	 * not support this leave callers to poll {@link #recvResponseFor}.
+	 */
+	public void registerWaiterFor( StatefulContext ctx, CommMessage request, Runnable wakeUp )
+		throws IOException
+	{ }
+
 	protected abstract CommMessage recvImpl()
 		throws IOException;
 	
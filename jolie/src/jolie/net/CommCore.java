@@ -35,6 +35,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
@@ -70,6 +71,9 @@ public class CommCore
 	private static final Logger logger = Logger.getLogger( "JOLIE" );
 
 	private final int connectionsLimit;
+	private final int connectionsCacheSize;
+	private final AtomicLong tlsHandshakes = new AtomicLong( 0 );
+	private final AtomicLong resumedTlsHandshakes = new AtomicLong( 0 );
 	// private final int connectionCacheSize;
 	private final Interpreter interpreter;
 
@@ -123,7 +127,7 @@ public class CommCore
 							removePersistentChannel( location, protocol, protocolChannels );
 							//} else {
 							// If we return a channel, make sure it will not timeout!
-							ret.setTimeoutHandler( null );
+							cancelTimeoutHandler( ret );
 							//if ( ret.timeoutHandler() != null ) {
 							//interpreter.removeTimeoutHandler( ret.timeoutHandler() );
 							// ret.setTimeoutHandler( null );
@@ -145,12 +149,17 @@ public class CommCore
 		return ret;
 	}
 
-	private void setTimeoutHandler( final CommChannel channel, final URI location, final String protocol )
+	private static void cancelTimeoutHandler( CommChannel channel )
 	{
-		/*if ( channel.timeoutHandler() != null ) {
-			interpreter.removeTimeoutHandler( channel.timeoutHandler() );
-		}*/
+		if ( channel.timeoutHandler() != null ) {
+			channel.timeoutHandler().cancel();
+			channel.setTimeoutHandler( null );
+		}
+	}
 
+	private void setTimeoutHandler( final CommChannel channel, final URI location, final String protocol )
+	{
+		cancelTimeoutHandler( channel );
 		final TimeoutHandler handler = new TimeoutHandler( interpreter.persistentConnectionTimeout() )
 		{
 			@Override
@@ -221,14 +230,17 @@ public class CommCore
 	 * operations
 	 * @param connectionsLimit if more than zero, specifies an upper bound to
 	 * the connections handled in parallel.
+	 * @param connectionsCacheSize the maximum number of output connections
+	 * kept open towards each location
 	 * @throws java.io.IOException
 	 */
-	public CommCore( Interpreter interpreter, int connectionsLimit /*, int connectionsCacheSize */ )
+	public CommCore( Interpreter interpreter, int connectionsLimit, int connectionsCacheSize )
 		throws IOException
 	{
 		this.interpreter = interpreter;
 		this.localListener = LocalListener.create( interpreter );
 		this.connectionsLimit = connectionsLimit;
+		this.connectionsCacheSize = connectionsCacheSize;
 		this.threadGroup = new ThreadGroup( "CommCore-" + interpreter.hashCode() );
 
 		executorService = new JolieThreadPoolExecutor( new CommThreadFactory() );
@@ -247,7 +259,6 @@ public class CommCore
 	public class ExecutionContextThread extends Thread
 	{
 		private Interpreter interpreter;
-		private StatefulContext executionContext = null;
 
 		private ExecutionContextThread( Runnable r, Interpreter interpreter )
 		{
@@ -255,16 +266,6 @@ public class CommCore
 			this.interpreter = interpreter;
 		}
 
-		public void executionContext( StatefulContext context )
-		{
-			executionContext = context;
-		}
-
-		public StatefulContext executionContext()
-		{
-			return executionContext;
-		}
-
 		public Interpreter interpreter()
 		{
 			return interpreter;
@@ -278,11 +279,7 @@ public class CommCore
 		@Override
 		public Thread newThread( Runnable r )
 		{
-			ExecutionContextThread t = new ExecutionContextThread( r, interpreter() );
-			if ( r instanceof StatefulContext ) {
-				t.executionContext((StatefulContext) r );
-			}
-			return t;
+			return new ExecutionContextThread( r, interpreter() );
 		}
 
 	}
@@ -307,6 +304,50 @@ public class CommCore
 		return connectionsLimit;
 	}
 
+	/**
+	 * Returns the maximum number of output connections kept open towards
+	 * each location, as set by the --conncache option.
+	 *
+	 * @return the maximum number of output connections per location
+	 */
+	public int connectionsCacheSize()
+	{
+		return connectionsCacheSize;
+	}
+
+	/**
+	 * Counts a completed TLS handshake, e.g., by an SSL protocol.
+	 *
+	 * @param resumed true if the handshake resumed a previous session
+	 */
+	public void recordTlsHandshake( boolean resumed )
+	{
+		tlsHandshakes.incrementAndGet();
+		if ( resumed ) {
+			resumedTlsHandshakes.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the number of TLS handshakes completed so far.
+	 *
+	 * @return the number of TLS handshakes
+	 */
+	public long tlsHandshakes()
+	{
+		return tlsHandshakes.get();
+	}
+
+	/**
+	 * Returns the number of TLS handshakes that resumed a previous session.
+	 *
+	 * @return the number of resumed TLS handshakes
+	 */
+	public long resumedTlsHandshakes()
+	{
+		return resumedTlsHandshakes.get();
+	}
+
 	public ThreadGroup threadGroup()
 	{
 		return threadGroup;
@@ -352,6 +393,24 @@ public class CommCore
 		return ret;
 	}
 
+	/**
+	 * Creates a channel without blocking the caller.
+	 * @see CommChannelFactory#acquireChannel(URI, OutputPort, StatefulContext)
+	 * @return the channel, or {@code null} if ctx will be started again
+	 * when the channel can be acquired
+	 */
+	public CommChannel acquireCommChannel( URI uri, OutputPort port, StatefulContext ctx )
+		throws IOException
+	{
+		String medium = uri.getScheme();
+		CommChannelFactory factory = getCommChannelFactory( medium );
+		if ( factory == null ) {
+			throw new UnsupportedCommMediumException( medium );
+		}
+
+		return factory.acquireChannel( uri, port, ctx );
+	}
+
 	private final Map< String, CommProtocolFactory> protocolFactories = new HashMap<>();
 
 	public CommProtocolFactory getCommProtocolFactory( String name )
@@ -112,7 +112,7 @@ public class CommMessage implements Serializable
 	 */
 	public static CommMessage createRequest( String operationName, String resourcePath, Value value )
 	{
-		return new CommMessage( getNewMessageId(), operationName, resourcePath, Value.createDeepCopy( value ), null, true );
+		return new CommMessage( getNewMessageId(), operationName, resourcePath, Value.createLazyCopy( value ), null, true );
 	}
 
 	/**
@@ -134,7 +134,7 @@ public class CommMessage implements Serializable
 	public static CommMessage createResponse( CommMessage request, Value value )
 	{
 		//TODO support resourcePath
-		return new CommMessage( request.id, request.operationName, "/", Value.createDeepCopy( value ), null, false );
+		return new CommMessage( request.id, request.operationName, "/", Value.createLazyCopy( value ), null, false );
 	}
 
 	/**
@@ -15,7 +15,7 @@ public class JolieCommChannelHandler extends SimpleChannelInboundHandler<Statefu
 {
 
 	private Channel channel;
-	private final CommChannel commChannel;
+	private final AbstractCommChannel commChannel;
 
 	JolieCommChannelHandler( AbstractCommChannel channel )
 	{
@@ -43,6 +43,13 @@ public class JolieCommChannelHandler extends SimpleChannelInboundHandler<Statefu
 		}
 	}
 
+	@Override
+	public void channelInactive( ChannelHandlerContext ctx ) throws Exception
+	{
+		commChannel.connectionClosed();
+		super.channelInactive( ctx );
+	}
+
 	protected ChannelFuture write( StatefulMessage msg )
 	{
 		return this.channel.writeAndFlush( msg );
@@ -23,6 +23,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import jolie.ExecutionContext;
 import jolie.Interpreter;
+import jolie.StatefulContext;
 
 /**
  * An in-memory channel that can be used to communicate directly with a specific
@@ -54,10 +55,10 @@ public class LocalCommChannel extends AbstractCommChannel
 			throws IOException
 		{
 			synchronized( senderChannel ) {
-				ExecutionContext waitingContext = senderChannel.responseWaiters.get( msg.message().id() );
+				Runnable wakeUp = senderChannel.responseWaiters.get( msg.message().id() );
 				senderChannel.pendingResponses.put( msg.message().id(), msg.message() );
-				if (waitingContext != null)
-					waitingContext.start();		
+				if (wakeUp != null)
+					wakeUp.run();		
 			}
 			
 			//if ( waitingContext == null ) {
@@ -91,7 +92,7 @@ public class LocalCommChannel extends AbstractCommChannel
 
 	private final Interpreter interpreter;
 	private final CommListener listener;
-	private final Map< Long, ExecutionContext> responseWaiters = new ConcurrentHashMap<>();
+	private final Map< Long, Runnable> responseWaiters = new ConcurrentHashMap<>();
 	private final Map< Long,  CommMessage> pendingResponses = new ConcurrentHashMap<>();
 	private final EventLoopGroup workerGroup;
 
@@ -142,11 +143,17 @@ public class LocalCommChannel extends AbstractCommChannel
 		synchronized( this ) {
 			response = pendingResponses.get( request.id() );
 			if (response == null)
-				responseWaiters.put( request.id(), ctx );
+				responseWaiters.putIfAbsent( request.id(), ctx::start );
 		}
 		return response;
 	}
 
+	@Override
+	public synchronized void registerWaiterFor( StatefulContext ctx, CommMessage request, Runnable wakeUp )
+	{
+		responseWaiters.put( request.id(), wakeUp );
+	}
+
 	@Override
 	protected void closeImpl()
 	{
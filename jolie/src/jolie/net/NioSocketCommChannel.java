@@ -10,14 +10,15 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.pool.ChannelPool;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.SslHandler;
 import io.netty.util.AttributeKey;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import jolie.net.protocols.AsyncCommProtocol;
 import jolie.util.Helpers;
@@ -42,6 +43,9 @@ public class NioSocketCommChannel extends StreamingCommChannel
 	protected final JolieCommChannelHandler jolieCommChannelHandler;
 	protected Channel channel;
 	private final ChannelPool channelPool;
+	private final AtomicBoolean returnedToPool = new AtomicBoolean( false );
+	// Users of a multiplexed channel; -1 if the channel can not be shared
+	private int users = -1;
 
 	public NioSocketCommChannel( URI location, AsyncCommProtocol protocol )
 	{
@@ -77,9 +81,8 @@ public class NioSocketCommChannel extends StreamingCommChannel
 		return channel;
 	}
 	
-	public static NioSocketCommChannel CreateChannelFromPool( ChannelPool pool, URI location, AsyncCommProtocol protocol, EventLoopGroup workerGroup ) throws InterruptedException, ExecutionException
+	public static NioSocketCommChannel CreateChannelFromPool( ChannelPool pool, Channel ch, URI location, AsyncCommProtocol protocol )
 	{
-		Channel ch = pool.acquire().get();
 		clearChannelPipeline(ch);
 		NioSocketCommChannel channel = new NioSocketCommChannel( location, protocol, pool );
 		ChannelPipeline p = ch.pipeline();
@@ -90,6 +93,31 @@ public class NioSocketCommChannel extends StreamingCommChannel
 		return channel;
 	}
 	
+	/**
+	 * Makes this channel usable by many callers at the same time.
+	 * The channel goes back to its pool when its last user releases it.
+	 */
+	void setMultiplexed()
+	{
+		setToBeClosed( false );
+		synchronized( this ) {
+			users = 0;
+		}
+	}
+
+	/**
+	 * Registers a new user of this multiplexed channel.
+	 * @return <code>false</code> if the channel can not be used anymore
+	 */
+	synchronized boolean share()
+	{
+		if ( users < 0 || !isOpen() || !channel.isActive() ) {
+			return false;
+		}
+		users++;
+		return true;
+	}
+
 	public void setChanel(Channel ch) {
 		channel = ch;
 		jolieCommChannelHandler.setChannel( ch );
@@ -102,7 +130,11 @@ public class NioSocketCommChannel extends StreamingCommChannel
 	protected static void clearChannelPipeline( Channel ch ) {
 		ChannelPipeline pipeline = ch.pipeline();
 		for( Entry<String, ChannelHandler> entry: pipeline.toMap().entrySet()) {
-			pipeline.remove( entry.getValue() );
+			// The TLS session outlives the protocols using the connection: pools
+			// are only shared by protocols with the same SSL settings
+			if ( !(entry.getValue() instanceof SslHandler) ) {
+				pipeline.remove( entry.getValue() );
+			}
 		}
 	}
 
@@ -152,7 +184,27 @@ public class NioSocketCommChannel extends StreamingCommChannel
 	@Override
 	protected void closeImpl() throws IOException
 	{
-		jolieCommChannelHandler.close();
+		jolieCommChannelHandler.close().addListener( f -> returnToPool() );
+	}
+
+	private synchronized boolean lastUser()
+	{
+		if ( users < 0 ) {
+			return true;
+		}
+		if ( --users == 0 ) {
+			users = -1;
+			return true;
+		}
+		return false;
+	}
+
+	// A pooled connection must be given back exactly once, even if closed
+	private void returnToPool()
+	{
+		if ( channelPool != null && returnedToPool.compareAndSet( false, true ) ) {
+			channelPool.release( channel );
+		}
 	}
 	
 //	@Override
@@ -167,10 +219,11 @@ public class NioSocketCommChannel extends StreamingCommChannel
 		throws IOException
 	{
 		Helpers.lockAndThen( lock, () -> {
-			if (channelPool != null)
-				channelPool.release( channel );
-			else
+			if ( channelPool == null ) {
 				super.releaseImpl();
+			} else if ( lastUser() ) {
+				returnToPool();
+			}
 		} );
 	}
 }
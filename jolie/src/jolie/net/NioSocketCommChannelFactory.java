@@ -2,50 +2,199 @@ package jolie.net;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
 import io.netty.channel.pool.ChannelPool;
 import io.netty.channel.pool.ChannelPoolHandler;
 import io.netty.channel.pool.ChannelPoolMap;
-import io.netty.channel.pool.SimpleChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.Future;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import jolie.StatefulContext;
 import jolie.net.ext.CommChannelFactory;
 import jolie.net.ports.OutputPort;
 import jolie.net.protocols.AsyncCommProtocol;
 import jolie.net.protocols.CommProtocol;
-import jolie.util.Pair;
 
 /**
+ * Creates socket channels. Channels acquired without blocking are taken
+ * from a bounded pool of connections for each location and protocol.
+ * Every pool keeps at most {@link CommCore#connectionsCacheSize()}
+ * connections, checks that a connection is still active before handing
+ * it out, and closes connections that stay idle longer than the
+ * persistent connection timeout of the interpreter.
  *
+ * Channels of multiplexed protocols (see {@link CommProtocol#isMultiplexed()})
+ * are shared: all contexts sending to the same location use the same
+ * connection, which goes back to the pool when none of them is using it.
  * @author martin
  */
 public class NioSocketCommChannelFactory extends CommChannelFactory
 {
+	/*
+	 * Identifies a pool. Pooled connections keep the state that protocols
+	 * leave on them, like TLS sessions, so they are only shared by the same
+	 * protocol with the same connection settings.
+	 */
+	private static class PoolKey
+	{
+		private final URI location;
+		private final String protocolName;
+		private final Object connectionSettings; // may be null
+
+		private PoolKey( URI location, AsyncCommProtocol protocol )
+		{
+			this.location = location;
+			this.protocolName = protocol.name();
+			this.connectionSettings = protocol.connectionSettings();
+		}
+
+		@Override
+		public boolean equals( Object other )
+		{
+			if ( !(other instanceof PoolKey) ) {
+				return false;
+			}
+			final PoolKey key = (PoolKey) other;
+			return location.equals( key.location )
+				&& protocolName.equals( key.protocolName )
+				&& Objects.equals( connectionSettings, key.connectionSettings );
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash( location, protocolName, connectionSettings );
+		}
+	}
 
-	private static HashMap<String, Pair> poolKeys = new HashMap<>();
-	
-	EventLoopGroup workerGroup;
-	ChannelPoolMap<String , ChannelPool> pools = new AbstractChannelPoolMap<String, ChannelPool>()
+	private static class PendingAcquisition
 	{
-		
+		private final PoolKey key;
+		private final Future< Channel > future;
+		private final boolean multiplexed;
+
+		private PendingAcquisition( PoolKey key, Future< Channel > future, boolean multiplexed )
+		{
+			this.key = key;
+			this.future = future;
+			this.multiplexed = multiplexed;
+		}
+	}
+
+	// A connection shared by the contexts using a multiplexed protocol
+	private static class MultiplexedConnection
+	{
+		private final ChannelPool pool;
+		private final Future< Channel > future;
+		private final URI location;
+		private final AsyncCommProtocol protocol;
+		private NioSocketCommChannel channel = null;
+
+		private MultiplexedConnection( ChannelPool pool, URI location, AsyncCommProtocol protocol )
+		{
+			this.pool = pool;
+			this.future = pool.acquire();
+			this.location = location;
+			this.protocol = protocol;
+		}
+
+		private synchronized boolean isStale()
+		{
+			return future.isDone()
+				&& ( !future.isSuccess() || (channel != null && !channel.isOpen()) );
+		}
+
+		// Returns null if the connection can not be used anymore
+		private synchronized NioSocketCommChannel share()
+		{
+			if ( channel == null ) {
+				channel = NioSocketCommChannel.CreateChannelFromPool( pool, future.getNow(), location, protocol );
+				channel.setMultiplexed();
+			}
+			return channel.share() ? channel : null;
+		}
+	}
+
+	private static class IdleChannelCloser extends ChannelInboundHandlerAdapter
+	{
+		@Override
+		public void userEventTriggered( ChannelHandlerContext ctx, Object evt ) throws Exception
+		{
+			if ( evt instanceof IdleStateEvent ) {
+				ctx.close();
+			} else {
+				super.userEventTriggered( ctx, evt );
+			}
+		}
+	}
+
+	private class PooledChannelHandler implements ChannelPoolHandler
+	{
+		private final PoolKey key;
+
+		private PooledChannelHandler( PoolKey key )
+		{
+			this.key = key;
+		}
+
 		@Override
-		protected ChannelPool newPool( String key )
+		public void channelReleased( Channel ch ) throws Exception
 		{
-			URI location;
-			try {
-				location = new URI( key );
-			} catch( URISyntaxException ex ) {
-				throw new IllegalArgumentException( "Key is not a valid URI" );
+			if ( ch.isActive() ) {
+				// Idle connections are closed, and then discarded by the health check
+				NioSocketCommChannel.clearChannelPipeline( ch );
+				final ChannelPipeline p = ch.pipeline();
+				p.addLast( new IdleStateHandler( 0, 0, idleTimeout, TimeUnit.MILLISECONDS ) );
+				p.addLast( new IdleChannelCloser() );
 			}
+		}
+
+		@Override
+		public void channelAcquired( Channel ch ) throws Exception
+		{
+		}
+
+		@Override
+		public void channelCreated( Channel ch ) throws Exception
+		{
+			// Give back the slot of a connection closed while in use.
+			// Releasing a channel that is not acquired has no effect.
+			ch.closeFuture().addListener( f -> pools.get( key ).release( ch ) );
+		}
+	}
+
+	private final EventLoopGroup workerGroup;
+	private final int maxConnections;
+	private final long idleTimeout;
+	// Acquisitions that a context has been suspended for
+	private final Map< StatefulContext, PendingAcquisition > pendingAcquisitions = new ConcurrentHashMap<>();
+	private final Map< PoolKey, MultiplexedConnection > multiplexedConnections = new HashMap<>();
+
+	private final ChannelPoolMap< PoolKey, ChannelPool > pools = new AbstractChannelPoolMap< PoolKey, ChannelPool >()
+	{
+		@Override
+		protected ChannelPool newPool( PoolKey key )
+		{
+			final URI location = key.location;
 			InetSocketAddress remoteAddress = new InetSocketAddress( location.getHost(), location.getPort() );
 			Bootstrap b = new Bootstrap();
 			b.group( workerGroup )
@@ -57,47 +206,31 @@ public class NioSocketCommChannelFactory extends CommChannelFactory
 					@Override
 					protected void initChannel( Channel ch ) throws Exception
 					{
-						
+
 					}
 				} );
-			
-			return new SimpleChannelPool(b, new ChannelPoolHandler()
-			{
-				int count = 0;
-				
-				@Override
-				public void channelReleased( Channel ch ) throws Exception
-				{
-//					count++;
-//					System.out.println( "Available channels: " + count + " (release)" );
-				}
 
-				@Override
-				public void channelAcquired( Channel ch ) throws Exception
-				{
-//					if(count > 0)
-//						count--;
-//					System.out.println( "Available channels: " + count + " (aquire)");
-					
-				}
-
-				@Override
-				public void channelCreated( Channel ch ) throws Exception
-				{
-				}
-			} );
+			return new FixedChannelPool(
+				b,
+				new PooledChannelHandler( key ),
+				ChannelHealthChecker.ACTIVE,
+				null, -1, // Acquisitions wait for a connection without timeout
+				maxConnections,
+				Integer.MAX_VALUE,
+				true
+			);
 		}
-		
 	};
 
 	public NioSocketCommChannelFactory( CommCore commCore, EventLoopGroup workerGroup )
 	{
 		super( commCore );
 		this.workerGroup = workerGroup;
+		this.maxConnections = Math.max( 1, commCore.connectionsCacheSize() );
+		this.idleTimeout = commCore.interpreter().persistentConnectionTimeout();
 	}
 
-	@Override
-	public CommChannel createChannel( URI location, OutputPort port, StatefulContext ctx )
+	private static AsyncCommProtocol getAsyncProtocol( OutputPort port, StatefulContext ctx )
 		throws IOException
 	{
 		CommProtocol protocol;
@@ -110,27 +243,125 @@ public class NioSocketCommChannelFactory extends CommChannelFactory
 		if ( !(protocol instanceof AsyncCommProtocol) ) {
 			throw new UnsupportedCommProtocolException( "Use an async protocol" );
 		}
+		return (AsyncCommProtocol) protocol;
+	}
 
-		String key = location.toString();
-		NioSocketCommChannel channel;
+	/**
+	 * Opens a new connection, outside of the pool of the location: callers
+	 * blocked waiting for a pooled connection could be holding all the
+	 * connections that would wake them up. Once released, the channel is
+	 * kept among the persistent channels of the interpreter, like other
+	 * channels that are not pooled.
+	 */
+	@Override
+	public CommChannel createChannel( URI location, OutputPort port, StatefulContext ctx )
+		throws IOException
+	{
+		final AsyncCommProtocol protocol = getAsyncProtocol( port, ctx );
+		final NioSocketCommChannel channel = NioSocketCommChannel.CreateChannel( location, protocol, workerGroup );
+		final ChannelFuture future;
 		try {
-			channel = NioSocketCommChannel.CreateChannelFromPool(pools.get( key ), location, (AsyncCommProtocol) protocol, workerGroup );
-		} catch( InterruptedException | ExecutionException ex ) {
-			throw new IOException("Unable to aquire channel for " + location);
-		}
-		
-//		try {
-//			ChannelFu
-//			f.sync();
-//			if ( !f.isSuccess() ) {
-//				throw (IOException) f.cause();
-//			}
-//		} catch( InterruptedException e ) {
-//			throw new IOException( e );
-//		} catch (ChannelException e) {
-//			throw new IOException( e );
-//		}
+			future = channel.connect( location ).await();
+		} catch( InterruptedException ex ) {
+			throw new IOException( "Unable to connect to " + location, ex );
+		}
+		if ( !future.isSuccess() ) {
+			throw new IOException( "Unable to connect to " + location, future.cause() );
+		}
 		return channel;
 	}
 
+	/**
+	 * Acquires a connection from the pool of the location without
+	 * blocking: if none is ready, ctx is suspended and started again
+	 * when the acquisition completes.
+	 */
+	@Override
+	public CommChannel acquireChannel( URI location, OutputPort port, StatefulContext ctx )
+		throws IOException
+	{
+		final AsyncCommProtocol protocol = getAsyncProtocol( port, ctx );
+		final PoolKey key = new PoolKey( location, protocol );
+		final ChannelPool pool = pools.get( key );
+
+		final PendingAcquisition pending = pendingAcquisitions.remove( ctx );
+		if ( pending != null && !pending.multiplexed && !pending.key.equals( key ) ) {
+			// The location changed in the meantime
+			releaseWhenAcquired( pending );
+		}
+		if ( protocol.isMultiplexed() ) {
+			return acquireMultiplexedChannel( key, pool, location, protocol, ctx, pending );
+		}
+
+		Future< Channel > future;
+		if ( pending != null && !pending.multiplexed && pending.key.equals( key ) ) {
+			future = pending.future;
+		} else {
+			future = pool.acquire();
+			if ( !future.isDone() ) {
+				pendingAcquisitions.put( ctx, new PendingAcquisition( key, future, false ) );
+				future.addListener( f -> ctx.start() );
+				return null;
+			}
+		}
+
+		if ( !future.isSuccess() ) {
+			throw new IOException( "Unable to acquire channel for " + location, future.cause() );
+		}
+		return NioSocketCommChannel.CreateChannelFromPool( pool, future.getNow(), location, protocol );
+	}
+
+	private CommChannel acquireMultiplexedChannel(
+		PoolKey key,
+		ChannelPool pool,
+		URI location,
+		AsyncCommProtocol protocol,
+		StatefulContext ctx,
+		PendingAcquisition pending
+	)
+		throws IOException
+	{
+		NioSocketCommChannel channel = null;
+		while( channel == null ) {
+			final MultiplexedConnection connection;
+			synchronized( multiplexedConnections ) {
+				MultiplexedConnection c = multiplexedConnections.get( key );
+				if ( c == null || c.isStale() ) {
+					if ( c != null && pending != null && pending.multiplexed && pending.future == c.future && !c.future.isSuccess() ) {
+						// We were waiting for this connection, do not try again
+						throw new IOException( "Unable to acquire channel for " + location, c.future.cause() );
+					}
+					c = new MultiplexedConnection( pool, location, protocol );
+					multiplexedConnections.put( key, c );
+				}
+				connection = c;
+			}
+
+			if ( !connection.future.isDone() ) {
+				pendingAcquisitions.put( ctx, new PendingAcquisition( key, connection.future, true ) );
+				connection.future.addListener( f -> ctx.start() );
+				return null;
+			}
+			if ( !connection.future.isSuccess() ) {
+				throw new IOException( "Unable to acquire channel for " + location, connection.future.cause() );
+			}
+			channel = connection.share();
+			if ( channel == null ) {
+				// The connection has just been given back to the pool
+				synchronized( multiplexedConnections ) {
+					multiplexedConnections.remove( key, connection );
+				}
+			}
+		}
+		return channel;
+	}
+
+	private void releaseWhenAcquired( PendingAcquisition pending )
+	{
+		pending.future.addListener( f -> {
+			if ( f.isSuccess() ) {
+				pools.get( pending.key ).release( pending.future.getNow() );
+			}
+		} );
+	}
 }
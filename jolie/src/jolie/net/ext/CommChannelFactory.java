@@ -55,4 +55,23 @@ public abstract class CommChannelFactory
 	 */
 	abstract public CommChannel createChannel( URI location, OutputPort port, StatefulContext ctx )
 		throws IOException;
+
+	/**
+	 * Creates and returns a communication channel, like
+	 * {@link #createChannel(URI, OutputPort, StatefulContext)}, unless
+	 * that requires waiting (e.g., for a connection to become available).
+	 * In that case, returns {@code null} and starts the passed context
+	 * again when the caller should retry.
+	 * The default implementation never waits.
+	 * @param location the location URI to use
+	 * @param port the output port to refer to in the creation of the channel
+	 * @param ctx the context requesting the channel
+	 * @return a valid communication channel, or {@code null}
+	 * @throws java.io.IOException if the channel could not be created
+	 */
+	public CommChannel acquireChannel( URI location, OutputPort port, StatefulContext ctx )
+		throws IOException
+	{
+		return createChannel( location, port, ctx );
+	}
 }
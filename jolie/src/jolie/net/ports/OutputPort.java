@@ -162,17 +162,18 @@ public class OutputPort extends AbstractIdentifiableObject implements Port
 	/**
 	 * Returns a new message with same operation and value, but resourcePath
 	 * updated to the current one of this output port.
+	 * @param ctx the context sending the message
 	 * @param message the original message
 	 * @return a new message with same operation and value, but updated resource
 	 * @throws java.net.URISyntaxException
 	 */
-	public CommMessage createAggregatedRequest(CommMessage message )
+	public CommMessage createAggregatedRequest( StatefulContext ctx, CommMessage message )
 		throws URISyntaxException
 	{
 		return new CommMessage(
 			CommMessage.getNewMessageId(),
 			message.operationName(),
-			getResourcePath(),
+			getResourcePath( ctx ),
 			message.value(),
 			message.fault(),
 			message.isRequest()
@@ -214,7 +215,7 @@ public class OutputPort extends AbstractIdentifiableObject implements Port
 		AsyncCommProtocol protocol = (AsyncCommProtocol)interpreter.commCore().createOutputCommProtocol(
 			protocolId,
 			protocolVariablePath,
-			new URI( locationExpression.evaluate().strValue() )
+			new URI( locationExpression.evaluate( ctx ).strValue() )
 		);
 		protocol.initialize( ctx );
 		return protocol;
@@ -223,9 +224,15 @@ public class OutputPort extends AbstractIdentifiableObject implements Port
 	
 	private CommChannel getCommChannel(StatefulContext ctx,  boolean forceNew )
 		throws URISyntaxException, IOException
+	{
+		return getCommChannel( ctx, forceNew, false );
+	}
+
+	private CommChannel getCommChannel( StatefulContext ctx, boolean forceNew, boolean async )
+		throws URISyntaxException, IOException
 	{
 		CommChannel ret;
-		Value loc = locationExpression.evaluate();
+		Value loc = locationExpression.evaluate( ctx );
 		if ( loc.isChannel() ) {
 			// It's a local channel
 			ret = loc.channelValue();
@@ -242,7 +249,14 @@ public class OutputPort extends AbstractIdentifiableObject implements Port
 				String protocol = protocolVariablePath.getValue( ctx ).strValue();
 				ret = interpreter.commCore().getPersistentChannel( uri, protocol, ctx );
 				if ( ret == null ) {
-					ret = interpreter.commCore().createCommChannel( uri, this, ctx );
+					if ( async ) {
+						ret = interpreter.commCore().acquireCommChannel( uri, this, ctx );
+						if ( ret == null ) {
+							return null;
+						}
+					} else {
+						ret = interpreter.commCore().createCommChannel( uri, this, ctx );
+					}
 				}
 			}
 		}
@@ -260,13 +274,14 @@ public class OutputPort extends AbstractIdentifiableObject implements Port
 
 	/**
 	 * Returns the resource path of the location of this output port.
+	 * @param ctx the context to evaluate the location in
 	 * @return the resource path of the location of this output port
 	 * @throws java.net.URISyntaxException
 	 */
-	public String getResourcePath()
+	public String getResourcePath( StatefulContext ctx )
 		throws URISyntaxException
 	{
-		Value location = locationExpression.evaluate();
+		Value location = locationExpression.evaluate( ctx );
 		if ( location.isChannel() ) {
 			return "/";
 		}
@@ -315,6 +330,21 @@ public class OutputPort extends AbstractIdentifiableObject implements Port
 		return getCommChannel(ctx, false );
 	}
 
+	/**
+	 * Returns a CommChannel for this OutputPort, like
+	 * {@link #getCommChannel(StatefulContext)}, without blocking the caller.
+	 * If no channel can be acquired yet, returns {@code null}: ctx is then
+	 * started again when the caller should retry.
+	 * @return a CommChannel for this OutputPort, or {@code null}
+	 * @throws java.net.URISyntaxException
+	 * @throws java.io.IOException
+	 */
+	public final CommChannel acquireCommChannel( StatefulContext ctx )
+		throws URISyntaxException, IOException
+	{
+		return getCommChannel( ctx, false, true );
+	}
+
 	/**
 	 * Returns the location variable path of this output port.
 	 * @return the location variable path of this output port
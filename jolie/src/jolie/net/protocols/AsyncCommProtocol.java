@@ -42,4 +42,15 @@ public abstract class AsyncCommProtocol extends CommProtocol
 		// Do nothing.
 	}
 
+	/**
+	 * Returns the settings of the state that this protocol leaves on a
+	 * connection for its next users, like a TLS session, or
+	 * <code>null</code> if it leaves none. Pooled connections are reused
+	 * only by protocols with equal settings.
+	 */
+	public Object connectionSettings()
+	{
+		return null;
+	}
+
 }
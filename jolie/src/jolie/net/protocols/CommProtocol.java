@@ -57,8 +57,21 @@ public abstract class CommProtocol
 		private static final String OPERATION_SPECIFIC_CONFIGURATION = "osc";
 	}
 
+	// The configuration value of this protocol, as resolved in a context
+	private static class ResolvedConfiguration {
+		private final StatefulContext context;
+		private final Value value;
+
+		private ResolvedConfiguration( StatefulContext context, Value value )
+		{
+			this.context = context;
+			this.value = value;
+		}
+	}
+
 	private final VariablePath configurationPath;
 	private CommChannel channel = null;
+	private ResolvedConfiguration resolvedConfiguration = null;
 
 	protected VariablePath configurationPath()
 	{
@@ -85,15 +98,45 @@ public abstract class CommProtocol
 		return this.channel;
 	}
 	
+	/**
+	 * Returns the configuration value of this protocol in ctx.
+	 * The configuration path is evaluated only the first time that
+	 * parameters are read for a context, so that reading parameters does
+	 * not walk the state tree again every time. Parameters are still read
+	 * from the configuration value, so changes to them and links in them
+	 * are seen immediately.
+	 * @see #refreshConfiguration()
+	 */
+	protected Value configuration( StatefulContext ctx )
+	{
+		ResolvedConfiguration resolved = resolvedConfiguration;
+		if ( resolved == null || resolved.context != ctx ) {
+			resolved = new ResolvedConfiguration( ctx, configurationPath.getValue( ctx ) );
+			resolvedConfiguration = resolved;
+		}
+		return resolved.value;
+	}
+
+	/**
+	 * Makes the next read of a parameter evaluate the configuration path
+	 * again. Protocols call this when they start handling a message, in
+	 * case the configuration value has been replaced in the meantime.
+	 */
+	protected void refreshConfiguration()
+	{
+		resolvedConfiguration = null;
+	}
+
 	protected ValueVector getParameterVector( StatefulContext ctx, String id )
 	{
-		return configurationPath.getValue( ctx ).getChildren( id );
+		return configuration( ctx ).getChildren( id );
 	}
 	
 	protected boolean hasParameter( StatefulContext ctx, String id )
 	{
-		if ( configurationPath.getValue( ctx ).hasChildren( id ) ) {
-			Value v = configurationPath.getValue( ctx ).getFirstChild( id );
+		final Value configuration = configuration( ctx );
+		if ( configuration.hasChildren( id ) ) {
+			Value v = configuration.getFirstChild( id );
 			return v.isDefined() || v.hasChildren();
 		}
 		return false;
@@ -101,8 +144,9 @@ public abstract class CommProtocol
 	
 	protected boolean hasParameterValue( StatefulContext ctx, String id )
 	{
-		if ( configurationPath.getValue( ctx ).hasChildren( id ) ) {
-			Value v = configurationPath.getValue( ctx ).getFirstChild( id );
+		final Value configuration = configuration( ctx );
+		if ( configuration.hasChildren( id ) ) {
+			Value v = configuration.getFirstChild( id );
 			return v.isDefined();
 		}
 		return false;
@@ -222,4 +266,14 @@ public abstract class CommProtocol
 		throws IOException;
 
 	abstract public boolean isThreadSafe();
+
+	/**
+	 * Returns <code>true</code> if requests of different sessions may be sent
+	 * concurrently over the same channel using this protocol, their responses
+	 * being matched to the requests by message id.
+	 */
+	public boolean isMultiplexed()
+	{
+		return false;
+	}
 }
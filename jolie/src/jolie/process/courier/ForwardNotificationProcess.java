@@ -86,38 +86,98 @@ public class ForwardNotificationProcess implements Behaviour
 		) );
 	}
 
-	@Override
-	public void run( StatefulContext ctx )
-		throws FaultException
+	/**
+	 * Sends the notification as soon as a channel to the output port is
+	 * available, suspending the context meanwhile.
+	 */
+	private class ForwardSendBehaviour implements Behaviour
 	{
-		if ( ctx.isKilled() ) {
-			return;
+		private final CommMessage message;
+
+		private ForwardSendBehaviour( CommMessage message )
+		{
+			this.message = message;
 		}
 
-		CommChannel channel = null;
-		try {
-			Value messageValue = outputVariablePath.evaluate();
-			if ( extenderTypeDescription != null ) {
-				extenderTypeDescription.requestType().cutChildrenFromValue( messageValue );
+		@Override
+		public void run( StatefulContext ctx )
+			throws FaultException
+		{
+			CommChannel channel = null;
+			try {
+				channel = outputPort.acquireCommChannel( ctx );
+				if ( channel == null ) {
+					ctx.executeNext( this );
+					ctx.pauseExecution();
+					return;
+				}
+				if ( ctx.isKilled() ) {
+					release( ctx, channel );
+					return;
+				}
+				log( "SENDING", message );
+				ctx.executeNext( new ForwardAckBehaviour( channel, message ) );
+				channel.registerWaiterFor( ctx, message );
+				channel.send( ctx, message );
+				log( "SENT", message );
+			} catch( IOException e ) {
+				if ( channel != null ) {
+					release( ctx, channel );
+				}
+				throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			} catch( URISyntaxException e ) {
+				ctx.interpreter().logSevere( e );
 			}
-			aggregatedTypeDescription.requestType().check( messageValue );
-			CommMessage message = CommMessage.createRequest( operationName, outputPort.getResourcePath(), messageValue );
-
-			channel = outputPort.getCommChannel( ctx );
-			
-			log( "SENDING", message );
-			
-			channel.send( ctx, message );
-			
-			log( "SENT", message );
-			
-			CommMessage response = null;
-			do {
+		}
+
+		@Override
+		public Behaviour clone( TransformationReason reason )
+		{
+			return new ForwardSendBehaviour( message );
+		}
+
+		@Override
+		public boolean isKillable()
+		{
+			// Kills are handled in run, to give back the acquired channel
+			return false;
+		}
+	}
+
+	/**
+	 * Waits for the acknowledgement of the notification, suspending the
+	 * context until the channel receives it.
+	 */
+	private class ForwardAckBehaviour implements Behaviour
+	{
+		private final CommChannel channel;
+		private final CommMessage message;
+
+		private ForwardAckBehaviour( CommChannel channel, CommMessage message )
+		{
+			this.channel = channel;
+			this.message = message;
+		}
+
+		@Override
+		public void run( StatefulContext ctx )
+			throws FaultException
+		{
+			final CommMessage response;
+			try {
 				response = channel.recvResponseFor( ctx, message );
-			} while( response == null );
-			
+			} catch( IOException e ) {
+				release( ctx, channel );
+				throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			}
+			if ( response == null ) {
+				ctx.executeNext( this );
+				ctx.pauseExecution();
+				return;
+			}
+			release( ctx, channel );
 			log( "RECEIVED ACK", response );
-			
+
 			if ( response.isFault() ) {
 				if ( response.fault().faultName().equals( "CorrelationError" )
 					|| response.fault().faultName().equals( "IOException" )
@@ -128,20 +188,51 @@ public class ForwardNotificationProcess implements Behaviour
 					ctx.interpreter().logSevere( "Forward notification process for operation " + operationName + " received an unexpected fault: " + response.fault().faultName() );
 				}
 			}
+		}
+
+		@Override
+		public Behaviour clone( TransformationReason reason )
+		{
+			return new ForwardAckBehaviour( channel, message );
+		}
+
+		@Override
+		public boolean isKillable()
+		{
+			// The channel is given back when the acknowledgement arrives
+			return false;
+		}
+	}
+
+	private static void release( StatefulContext ctx, CommChannel channel )
+	{
+		try {
+			channel.release();
 		} catch( IOException e ) {
-			throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			ctx.interpreter().logWarning( e );
+		}
+	}
+
+	@Override
+	public void run( StatefulContext ctx )
+		throws FaultException
+	{
+		if ( ctx.isKilled() ) {
+			return;
+		}
+
+		try {
+			Value messageValue = outputVariablePath.evaluate( ctx );
+			if ( extenderTypeDescription != null ) {
+				extenderTypeDescription.requestType().cutChildrenFromValue( messageValue );
+			}
+			aggregatedTypeDescription.requestType().check( messageValue );
+			CommMessage message = CommMessage.createRequest( operationName, outputPort.getResourcePath( ctx ), messageValue );
+			ctx.executeNext( new ForwardSendBehaviour( message ) );
 		} catch( URISyntaxException e ) {
 			ctx.interpreter().logSevere( e );
 		} catch( TypeCheckingException e ) {
 			throw new FaultException( Constants.TYPE_MISMATCH_FAULT_NAME, "TypeMismatch (" + operationName + "@" + outputPort.id() + "): " + e.getMessage() );
-		} finally {
-			if ( channel != null ) {
-				try {
-					channel.release();
-				} catch( IOException e ) {
-					ctx.interpreter().logWarning( e );
-				}
-			}
 		}
 	}
 	
@@ -150,4 +241,4 @@ public class ForwardNotificationProcess implements Behaviour
 	{
 		return true;
 	}
-}
\ No newline at end of file
+}
@@ -90,40 +90,102 @@ public class ForwardSolicitResponseProcess implements Behaviour
 		) );
 	}
 
-	@Override
-	public void run(StatefulContext ctx)
-		throws FaultException
+	/**
+	 * Sends the request as soon as a channel to the output port is
+	 * available, suspending the context meanwhile.
+	 */
+	private class ForwardSendBehaviour implements Behaviour
 	{
-		if ( ctx.isKilled() ) {
-			return;
+		private final CommMessage message;
+
+		private ForwardSendBehaviour( CommMessage message )
+		{
+			this.message = message;
 		}
 
-		CommChannel channel = null;
-		try {
-			Value messageValue = outputVariablePath.evaluate();
-			if ( extenderTypeDescription != null ) {
-				extenderTypeDescription.requestType().cutChildrenFromValue( messageValue );
+		@Override
+		public void run( StatefulContext ctx )
+			throws FaultException
+		{
+			CommChannel channel = null;
+			try {
+				channel = outputPort.acquireCommChannel( ctx );
+				if ( channel == null ) {
+					ctx.executeNext( this );
+					ctx.pauseExecution();
+					return;
+				}
+				if ( ctx.isKilled() ) {
+					release( ctx, channel );
+					return;
+				}
+				log( "SENDING", message );
+				ctx.executeNext( new ForwardReceiveBehaviour( channel, message ) );
+				channel.registerWaiterFor( ctx, message );
+				channel.send( ctx, message );
+				log( "SENT", message );
+			} catch( IOException e ) {
+				if ( channel != null ) {
+					release( ctx, channel );
+				}
+				throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			} catch( URISyntaxException e ) {
+				ctx.interpreter().logSevere( e );
 			}
-			aggregatedTypeDescription.requestType().check( messageValue );
-			CommMessage message = CommMessage.createRequest( operationName, outputPort.getResourcePath(), messageValue );
-
-			channel = outputPort.getCommChannel( ctx );
-			
-			log( "SENDING", message );
-			
-			channel.send( ctx, message );
-			//channel.release(); TODO release channel if possible (i.e. it will not be closed)
-			log( "SENT", message );
-			CommMessage response = null;
-			do {
+		}
+
+		@Override
+		public Behaviour clone( TransformationReason reason )
+		{
+			return new ForwardSendBehaviour( message );
+		}
+
+		@Override
+		public boolean isKillable()
+		{
+			// Kills are handled in run, to give back the acquired channel
+			return false;
+		}
+	}
+
+	/**
+	 * Waits for the response to the request, suspending the context until
+	 * the channel receives it.
+	 */
+	private class ForwardReceiveBehaviour implements Behaviour
+	{
+		private final CommChannel channel;
+		private final CommMessage message;
+
+		private ForwardReceiveBehaviour( CommChannel channel, CommMessage message )
+		{
+			this.channel = channel;
+			this.message = message;
+		}
+
+		@Override
+		public void run( StatefulContext ctx )
+			throws FaultException
+		{
+			final CommMessage response;
+			try {
 				response = channel.recvResponseFor( ctx, message );
-			} while( response == null );
-			log( "RECEIVED", message );
-			
+			} catch( IOException e ) {
+				release( ctx, channel );
+				throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			}
+			if ( response == null ) {
+				ctx.executeNext( this );
+				ctx.pauseExecution();
+				return;
+			}
+			release( ctx, channel );
+			log( "RECEIVED", response );
+
 			if ( inputVariablePath != null )	 {
 				inputVariablePath.setValue( ctx, response.value() );
 			}
-			
+
 			if ( response.isFault() ) {
 				Type faultType = aggregatedTypeDescription.getFaultType( response.fault().faultName() );
 				if ( faultType != null ) {
@@ -143,24 +205,51 @@ public class ForwardSolicitResponseProcess implements Behaviour
 					}
 				}
 			}
+		}
+
+		@Override
+		public Behaviour clone( TransformationReason reason )
+		{
+			return new ForwardReceiveBehaviour( channel, message );
+		}
+
+		@Override
+		public boolean isKillable()
+		{
+			// The channel is given back when the response arrives
+			return false;
+		}
+	}
 
-			/*try {
-				installProcess.run();
-			} catch( ExitingException e ) { assert false; }*/
+	private static void release( StatefulContext ctx, CommChannel channel )
+	{
+		try {
+			channel.release();
 		} catch( IOException e ) {
-			throw new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e );
+			ctx.interpreter().logWarning( e );
+		}
+	}
+
+	@Override
+	public void run( StatefulContext ctx )
+		throws FaultException
+	{
+		if ( ctx.isKilled() ) {
+			return;
+		}
+
+		try {
+			Value messageValue = outputVariablePath.evaluate( ctx );
+			if ( extenderTypeDescription != null ) {
+				extenderTypeDescription.requestType().cutChildrenFromValue( messageValue );
+			}
+			aggregatedTypeDescription.requestType().check( messageValue );
+			CommMessage message = CommMessage.createRequest( operationName, outputPort.getResourcePath( ctx ), messageValue );
+			ctx.executeNext( new ForwardSendBehaviour( message ) );
 		} catch( URISyntaxException e ) {
 			ctx.interpreter().logSevere( e );
 		} catch( TypeCheckingException e ) {
 			throw new FaultException( Constants.TYPE_MISMATCH_FAULT_NAME, "Output message TypeMismatch (" + operationName + "@" + outputPort.id() + "): " + e.getMessage() );
-		} finally {
-			if ( channel != null ) {
-				try {
-					channel.release();
-				} catch( IOException e ) {
-					ctx.interpreter().logWarning( e );
-				}
-			}
 		}
 	}
 	
@@ -168,4 +257,4 @@ public class ForwardSolicitResponseProcess implements Behaviour
 	{
 		return true;
 	}
-}
\ No newline at end of file
+}
@@ -57,15 +57,9 @@ public class ClosedVariablePath extends VariablePath
 		return new ClosedVariablePath( clonedPath, rootValue );
 	}
 
-	@Override
-	protected Value getRootValue()
-	{
-		return rootValue;
-	}	
-	
 	@Override
 	protected Value getRootValue(StatefulContext ctx)
 	{
-		return getRootValue();
+		return rootValue;
 	}
 }
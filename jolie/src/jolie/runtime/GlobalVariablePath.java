@@ -22,7 +22,6 @@
 package jolie.runtime;
 
 
-import jolie.Interpreter;
 import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.expression.Expression;
@@ -57,12 +56,6 @@ public class GlobalVariablePath extends VariablePath
 		return new GlobalVariablePath( clonedPath );
 	}
 
-	@Override
-	protected Value getRootValue()
-	{
-		return Interpreter.getInstance().globalValue();
-	}
-	
 	@Override
 	protected Value getRootValue( StatefulContext ctx ) 
 	{
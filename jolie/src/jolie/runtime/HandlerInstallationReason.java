@@ -22,18 +22,30 @@
 
 package jolie.runtime;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 
 public class HandlerInstallationReason implements TransformationReason
 {
 	final private String handlerId;
+	final private StatefulContext context;
 	
-	public HandlerInstallationReason( String handlerId )
+	public HandlerInstallationReason( String handlerId, StatefulContext context )
 	{
 		this.handlerId = handlerId;
+		this.context = context;
 	}
 	public String handlerId()
 	{
 		return handlerId;
 	}
+
+	/**
+	 * Returns the context installing the handler.
+	 * @return the context installing the handler
+	 */
+	public StatefulContext context()
+	{
+		return context;
+	}
 }
@@ -22,6 +22,7 @@
 
 package jolie.runtime;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.expression.Expression;
 
@@ -45,13 +46,13 @@ public class InstallFixedVariablePath implements Expression
 	public Expression cloneExpression( TransformationReason reason )
 	{
 		if ( reason instanceof HandlerInstallationReason ) {
-			return new InstallFixedVariablePath( Value.createDeepCopy( path.getValue() ) );
+			return new InstallFixedVariablePath( Value.createDeepCopy( path.getValue( ((HandlerInstallationReason) reason).context() ) ) );
 		}
 		
 		return new InstallFixedVariablePath( path );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
 		return fixedEvaluation;
 	}
@@ -23,12 +23,20 @@
 package jolie.runtime;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import jolie.Interpreter;
 import jolie.StatefulContext;
 import jolie.lang.Constants;
@@ -51,29 +59,55 @@ public abstract class JavaService
 	
 	@FunctionalInterface
 	private interface JavaOperationCallable {
-		public CommMessage call( JavaService service, JavaOperation javaOperation, CommMessage message )
-			throws IllegalAccessException;
+		// Returns null if the response is passed to responder later on
+		public CommMessage call( JavaService service, JavaOperation javaOperation, CommMessage message, Consumer< CommMessage > responder );
 	}
 	
 	public interface ValueConverter {}
 
+	/*
+	 * The method of an operation is bound to its service and composed with
+	 * the converter of its parameter when the service is loaded, so a call
+	 * costs a single method handle invocation, taking the message value.
+	 */
 	private static class JavaOperation {
-		private final Method method;
-		private final Method parameterConstructor;
-		private final Method returnValueConstructor;
+		// (Value)Object
+		private final MethodHandle invoker;
+		// (Object)Value, null if the result is a Value or there is none
+		private final MethodHandle returnValueConverter;
 		private final JavaOperationCallable callable;
 
 		private JavaOperation(
+				JavaService service,
 				Method method,
 				Method parameterConstructor,
 				Method returnValueConstructor,
 				JavaOperationCallable callable
-		) {
-			this.method = method;
-			this.parameterConstructor = parameterConstructor;
-			this.returnValueConstructor = returnValueConstructor;
+		) throws IllegalAccessException {
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			method.setAccessible( true );
+			MethodHandle handle = lookup.unreflect( method ).bindTo( service );
+			if ( parameterConstructor == null ) {
+				handle = MethodHandles.dropArguments( handle, 0, Value.class );
+			} else {
+				final MethodHandle converter = lookup.unreflect( parameterConstructor );
+				handle = MethodHandles.filterArguments(
+					handle, 0,
+					converter.asType( MethodType.methodType( handle.type().parameterType( 0 ), Value.class ) )
+				);
+			}
+			this.invoker = handle.asType( MethodType.methodType( Object.class, Value.class ) );
+			this.returnValueConverter = ( returnValueConstructor == null )
+				? null
+				: lookup.unreflect( returnValueConstructor ).asType( MethodType.methodType( Value.class, Object.class ) );
 			this.callable = callable;
 		}
+
+		private Value toValue( Object retObject )
+			throws Throwable
+		{
+			return ( returnValueConverter == null ) ? (Value) retObject : (Value) returnValueConverter.invokeExact( retObject );
+		}
 	}
 
 	protected static class Embedder
@@ -122,13 +156,21 @@ public abstract class JavaService
 		Map< String, JavaOperation > ops  = new HashMap<>();
 		
 		Class<?>[] params;
+		Method parameterConstructor;
 		for( Method method : this.getClass().getDeclaredMethods() ) {
 			if ( Modifier.isPublic( method.getModifiers() ) ) {
 				params = method.getParameterTypes();
-				if ( params.length == 1 ) {
-					checkMethod( ops, method, getFromValueConverter( params[0] ) );
-				} else if ( params.length == 0 ) {
-					checkMethod( ops, method, null );
+				try {
+					if ( params.length == 1 ) {
+						parameterConstructor = getFromValueConverter( params[0] );
+						if ( parameterConstructor != null ) {
+							checkMethod( ops, method, parameterConstructor );
+						}
+					} else if ( params.length == 0 ) {
+						checkMethod( ops, method, null );
+					}
+				} catch( IllegalAccessException e ) {
+					// The method can not be called, do not expose it as an operation
 				}
 			}
 		}
@@ -228,45 +270,106 @@ public abstract class JavaService
 		return null;
 	}
 	
-	private static CommMessage oneWayCallable( JavaService javaService, JavaOperation javaOperation, CommMessage message )
-		throws IllegalAccessException
+	private static CommMessage oneWayCallable( JavaService javaService, JavaOperation javaOperation, CommMessage message, Consumer< CommMessage > responder )
 	{
-		final Object[] args = getArguments( javaOperation, message );
-		javaService.interpreter.execute( () -> {
+		final Value value = message.value();
+		javaService.interpreter.executeBlocking( () -> {
 			try {
-				javaOperation.method.invoke( javaService, args );
-			} catch( InvocationTargetException | IllegalAccessException e ) {
-				// This should never happen, as we filtered this out in the constructor.
-				javaService.interpreter.logSevere( e );
+				javaOperation.invoker.invoke( value );
+			} catch( Throwable t ) {
+				javaService.interpreter.logSevere( t );
 			}
 		} );
 		return CommMessage.createEmptyResponse( message );
 	}
 	
-	private static CommMessage requestResponseCallable( JavaService javaService, JavaOperation javaOperation, CommMessage message )
-		throws IllegalAccessException
+	private static CommMessage requestResponseCallable( JavaService javaService, JavaOperation javaOperation, CommMessage message, Consumer< CommMessage > responder )
 	{
-		final Object[] args = getArguments( javaOperation, message );
 		try {
-			final Object retObject = javaOperation.method.invoke( javaService, args );
+			final Object retObject = (Object) javaOperation.invoker.invokeExact( message.value() );
 			if ( retObject == null ) {
 				return CommMessage.createEmptyResponse( message );
 			} else {
-				return CommMessage.createResponse( message, (Value)javaOperation.returnValueConstructor.invoke( null, retObject ) );
+				return CommMessage.createResponse( message, javaOperation.toValue( retObject ) );
+			}
+		} catch( Throwable t ) {
+			return createFaultResponse( message, t );
+		}
+	}
+
+	/*
+	 * Operations returning a CompletableFuture do not hold the calling
+	 * thread: the response is built when the future completes.
+	 * Results are converted like those of synchronous operations, e.g.,
+	 * a CompletableFuture< Integer > responds with an int value; results of
+	 * futures with unknown type arguments must be Values.
+	 */
+	private static CommMessage asyncRequestResponseCallable( JavaService javaService, JavaOperation javaOperation, CommMessage message, Consumer< CommMessage > responder )
+	{
+		final CompletableFuture< ? > future;
+		try {
+			future = (CompletableFuture< ? >) (Object) javaOperation.invoker.invokeExact( message.value() );
+		} catch( Throwable t ) {
+			return createFaultResponse( message, t );
+		}
+		if ( future == null ) {
+			return CommMessage.createEmptyResponse( message );
+		}
+		if ( future.isDone() ) {
+			try {
+				return createAsyncResponse( javaOperation, message, null, future.join() );
+			} catch( CompletionException | CancellationException e ) {
+				return createAsyncResponse( javaOperation, message, e, null );
 			}
-		} catch( InvocationTargetException e ) {
-			final FaultException fault =
-				( e.getCause() instanceof FaultException )
-				? (FaultException)e.getCause()
-				: new FaultException( e.getCause() );
-			return CommMessage.createFaultResponse(
+		}
+		future.whenComplete( ( retObject, cause ) -> responder.accept( createAsyncResponse( javaOperation, message, cause, retObject ) ) );
+		return null;
+	}
+
+	private static CommMessage createAsyncResponse( JavaOperation javaOperation, CommMessage message, Throwable cause, Object retObject )
+	{
+		if ( cause != null ) {
+			return createFaultResponse(
 				message,
-				fault
+				( cause instanceof CompletionException && cause.getCause() != null ) ? cause.getCause() : cause
 			);
+		} else if ( retObject == null ) {
+			return CommMessage.createEmptyResponse( message );
+		}
+		try {
+			return CommMessage.createResponse( message, javaOperation.toValue( retObject ) );
+		} catch( Throwable t ) {
+			return createFaultResponse( message, t );
 		}
 	}
 
+	// Returns the type argument of a method returning a CompletableFuture, or null if it is not a class
+	private static Class<?> getFutureResultType( Method method )
+	{
+		final Type type = method.getGenericReturnType();
+		if ( type instanceof ParameterizedType ) {
+			final Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+			if ( argument instanceof Class ) {
+				return (Class<?>) argument;
+			}
+		}
+		return null;
+	}
+
+	private static CommMessage createFaultResponse( CommMessage message, Throwable cause )
+	{
+		final FaultException fault =
+			( cause instanceof FaultException )
+			? (FaultException)cause
+			: new FaultException( cause );
+		return CommMessage.createFaultResponse(
+			message,
+			fault
+		);
+	}
+
 	private void checkMethod( Map< String, JavaOperation > ops, Method method, Method parameterConstructor )
+		throws IllegalAccessException
 	{
 		final Class<?> returnType;
 		final Class<?>[] exceptions;
@@ -280,6 +383,7 @@ public abstract class JavaService
 				ops.put(
 					method.getName(),
 					new JavaOperation(
+						this,
 						method,
 						parameterConstructor,
 						null,
@@ -290,6 +394,7 @@ public abstract class JavaService
 				ops.put(
 					method.getName(),
 					new JavaOperation(
+						this,
 						method,
 						parameterConstructor,
 						null,
@@ -297,6 +402,26 @@ public abstract class JavaService
 					)
 				);
 			}
+		} else if ( CompletableFuture.class.isAssignableFrom( returnType ) ) {
+			final Class<?> resultType = getFutureResultType( method );
+			if ( resultType == null || Void.class.equals( resultType ) ) {
+				returnValueConstructor = null;
+			} else {
+				returnValueConstructor = getToValueConverter( resultType );
+				if ( returnValueConstructor == null ) {
+					return;
+				}
+			}
+			ops.put(
+				getMethodName( method ),
+				new JavaOperation(
+					this,
+					method,
+					parameterConstructor,
+					returnValueConstructor,
+					JavaService::asyncRequestResponseCallable
+				)
+			);
 		} else {
 			returnValueConstructor = getToValueConverter( returnType );
 			if ( returnValueConstructor != null ) {
@@ -308,6 +433,7 @@ public abstract class JavaService
 					ops.put(
 						getMethodName( method ),
 						new JavaOperation(
+							this,
 							method,
 							parameterConstructor,
 							returnValueConstructor,
@@ -319,21 +445,21 @@ public abstract class JavaService
 		}
 	}
 
-	private static Object[] getArguments( final JavaOperation javaOperation, final CommMessage message )
-		throws IllegalAccessException
+	public CommMessage callOperation( CommMessage message )
+		throws InvalidIdException, IllegalAccessException
 	{
-		if ( javaOperation.parameterConstructor == null ) {
-			return new Object[0];
-		} else {
-			try {
-				return new Object[] { javaOperation.parameterConstructor.invoke( null, message.value() ) };
-			} catch( InvocationTargetException e ) {
-				throw new IllegalAccessException( e.getMessage() );
-			}
-		}
+		final CompletableFuture< CommMessage > deferred = new CompletableFuture<>();
+		final CommMessage response = callOperation( message, deferred::complete );
+		return ( response == null ) ? deferred.join() : response;
 	}
-	
-	public CommMessage callOperation( CommMessage message )
+
+	/**
+	 * Calls the operation requested by message.
+	 * @param responder receives the response if it is not available yet
+	 * @return the response, or <code>null</code> if it is going to be passed
+	 * to responder once the operation completes
+	 */
+	public CommMessage callOperation( CommMessage message, Consumer< CommMessage > responder )
 		throws InvalidIdException, IllegalAccessException
 	{
 		final JavaOperation javaOperation = operations.get( message.operationName() );
@@ -341,7 +467,7 @@ public abstract class JavaService
 			throw new InvalidIdException( message.operationName() );
 		}
 
-		return javaOperation.callable.call( this, javaOperation, message );
+		return javaOperation.callable.call( this, javaOperation, message, responder );
 	}
 	
 	public final void setInterpreter( Interpreter interpreter )
@@ -21,159 +21,110 @@
 
 package jolie.runtime;
 
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import jolie.SessionListener;
 import jolie.StatefulContext;
 import jolie.TransparentContext;
 import jolie.behaviours.Behaviour;
-import jolie.behaviours.InstallBehaviour;
-import jolie.behaviours.ScopeBehaviour;
-import jolie.behaviours.SequentialBehaviour;
 import jolie.behaviours.SimpleBehaviour;
-import jolie.behaviours.TransformationReason;
-import jolie.lang.Constants;
-import jolie.util.Pair;
 
-public class ParallelExecution
+/**
+ * Runs the branches of a parallel composition and resumes the parent
+ * context when all of them have terminated.
+ * The first fault raised by a branch kills the other branches and is
+ * then rethrown in the parent context.
+ */
+public class ParallelExecution implements SessionListener
 {
-	private static AtomicInteger count = new AtomicInteger();
 	private class ParallelContext extends TransparentContext
 	{
-		private final String scopeId = count.getAndIncrement() + "-ParallelContext";
-		
 		public ParallelContext( Behaviour process, StatefulContext parentCtx )
 		{
-			super( null, parentCtx );
-
-			ArrayList<Pair<String, Behaviour>> faultHandlers = new ArrayList<>();
-			faultHandlers.add( new Pair( Constants.Keywords.DEFAULT_HANDLER_NAME, new CatchBehaviour() ) );
-			super.executeNext(
-				new SequentialBehaviour(new Behaviour[] {
-					new ScopeBehaviour(
-						scopeId,
-						new SequentialBehaviour(new Behaviour[] {
-							new InstallBehaviour( faultHandlers ),
-							process,
-							new PostBehaviour()
-						}),
-						true, false
-					)
-				})
-			);
+			super( process, parentCtx );
+			addSessionListener( ParallelExecution.this );
 		}
-		
-		private class PostBehaviour extends SimpleBehaviour {
 
-			@Override
-			public void run( StatefulContext ctx ) throws FaultException, ExitingException
-			{
-				terminationNotify( ParallelContext.this );
-			}
+		@Override
+		protected boolean handleUncaughtFault( FaultException f )
+		{
+			signalFault( this, f );
+			return true;
 		}
-		
-		private class CatchBehaviour extends SimpleBehaviour {
-			
-			@Override
-			public void run( StatefulContext ctx ) throws FaultException, ExitingException
-			{
-				Value scopeValue = new VariablePathBuilder( false ).add( scopeId, 0 ).toVariablePath().getValue( ctx );
-				Value defaultFaultValue = scopeValue.getChildren( Constants.Keywords.DEFAULT_HANDLER_NAME ).get( 0 );
-				Value userFaultValueValue = scopeValue.getChildren( defaultFaultValue.strValue() ).get( 0 );
-				FaultException fault = new FaultException( defaultFaultValue.strValue(), userFaultValueValue );
-				
-				if (fault instanceof FaultException) {
-					signalFault( ParallelContext.this, fault );
-				}
-			}
+	}
 
-			@Override
-			public Behaviour clone( TransformationReason reason )
-			{
-				return this;
-			}
-			
+	private class ThrowFaultBehaviour extends SimpleBehaviour
+	{
+		@Override
+		public void run( StatefulContext ctx ) throws FaultException, ExitingException
+		{
+			throw fault;
 		}
 	}
-	
-	final private Collection< StatefulContext > runningContexts = new HashSet<>();
+
+	private final ParallelContext[] branches;
 	private final StatefulContext context;
+	// Branches that have not terminated yet
+	private final AtomicInteger running;
 	private FaultException fault = null;
-	private boolean isKilled = false;
-	private boolean childrenKilled = false;
+	private boolean branchesKilled = false;
 
-	public ParallelExecution( Behaviour[] procs, StatefulContext parentCtx)
+	public ParallelExecution( Behaviour[] procs, StatefulContext parentCtx )
 	{
-		for( Behaviour proc : procs ) {
-			runningContexts.add( new ParallelContext( proc, parentCtx ) );
-		}
 		context = parentCtx;
+		branches = new ParallelContext[ procs.length ];
+		for( int i = 0; i < procs.length; i++ ) {
+			branches[ i ] = new ParallelContext( procs[ i ], parentCtx );
+		}
+		running = new AtomicInteger( procs.length );
 	}
 	
 	public void run()
 		throws FaultException
 	{
 		context.pauseExecution();
-		synchronized( this ) {
-			for( StatefulContext t : runningContexts ) {
-				t.start();
-			}
+		for( int i = 1; i < branches.length; i++ ) {
+			branches[ i ].start();
 		}
+		// The parent is paused, so the first branch can take over this thread
+		branches[ 0 ].run();
 	}
-	
-	private void terminationNotify( StatefulContext ctx )
+
+	@Override
+	public void onSessionExecuted( StatefulContext branch )
 	{
-		synchronized( this ) {
-			runningContexts.remove( ctx );
-			
-			if ( runningContexts.isEmpty() ) {
-				childTerminated( ctx );
+		if ( context.isKilled() ) {
+			killBranches( context.killerFault() );
+		}
+		if ( running.decrementAndGet() == 0 ) {
+			synchronized( this ) {
+				if ( fault != null ) {
+					context.executeNext( new ThrowFaultBehaviour() );
+				}
 			}
+			context.start();
 		}
 	}
-	
-		
-	private void signalFault( StatefulContext ctx, FaultException f )
+
+	@Override
+	public void onSessionError( StatefulContext branch, FaultException f )
 	{
-		synchronized( this ) {
-			runningContexts.remove( ctx );
-			if ( !isKilled && fault == null ) {
-				fault = f;
-				childTerminated( ctx );
-			} else if ( runningContexts.isEmpty() ) {
-				childTerminated( ctx );
-			}
+		// Branches take their faults in handleUncaughtFault
+	}
+
+	private synchronized void signalFault( StatefulContext branch, FaultException f )
+	{
+		if ( fault == null && !branchesKilled ) {
+			fault = f;
+			killBranches( f );
 		}
 	}
-	
-	private void childTerminated(StatefulContext childCtx) {
-		
-		synchronized( this ) {
-			if ( context.isKilled() && !runningContexts.isEmpty() && !isKilled) {
-				isKilled = true;
-				for( StatefulContext	runningCtx : runningContexts ) {
-					runningCtx.kill( context.killerFault() );
-				}
-			} else if ( fault != null && !childrenKilled && !isKilled ) {
-				childrenKilled = true;
-				for( StatefulContext	runningCtx : runningContexts ) {
-					runningCtx.kill( fault );
-				}
-			}
-			if (runningContexts.isEmpty()) {
-				if (fault != null) {
-					context.executeNext(new SimpleBehaviour()
-					{
-						@Override
-						public void run( StatefulContext ctx ) throws FaultException, ExitingException
-						{
-							throw fault;
-						}
-					});
-				}
-				context.start();
+
+	private synchronized void killBranches( FaultException f )
+	{
+		if ( !branchesKilled ) {
+			branchesKilled = true;
+			for( ParallelContext branch : branches ) {
+				branch.kill( f );
 			}
 		}
 	}
@@ -0,0 +1,70 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by agent <agent@local>                             *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package jolie.runtime;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import jolie.StatefulContext;
+
+/**
+ * A lock held by sessions, which never blocks a thread.
+ * A session that can not take the lock is queued and should suspend
+ * itself: the lock is handed over to queued sessions in FIFO order,
+ * and each of them is started again when it becomes the owner.
+ */
+public class QueueLock
+{
+	// The owner plus the sessions waiting for the lock
+	private final AtomicInteger holders = new AtomicInteger( 0 );
+	private final Queue< StatefulContext > waiters = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Takes the lock for ctx, or queues ctx if the lock is taken.
+	 * @param ctx the session that wants the lock
+	 * @return true if ctx now owns the lock, false if ctx has been queued
+	 * and will be started again once it owns the lock
+	 */
+	public boolean acquire( StatefulContext ctx )
+	{
+		if ( holders.getAndIncrement() == 0 ) {
+			return true;
+		}
+		waiters.add( ctx );
+		return false;
+	}
+
+	/**
+	 * Releases the lock, handing it over to the first queued session if any.
+	 */
+	public void release()
+	{
+		if ( holders.decrementAndGet() > 0 ) {
+			StatefulContext next;
+			// The next owner may not have been queued yet
+			while( (next = waiters.poll()) == null ) {
+				Thread.yield();
+			}
+			next.start();
+		}
+	}
+}
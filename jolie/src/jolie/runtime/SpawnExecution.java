@@ -22,70 +22,70 @@
 package jolie.runtime;
 
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.concurrent.CountDownLatch;
 import jolie.SessionListener;
+import jolie.State;
 import jolie.StatefulContext;
 import jolie.behaviours.Behaviour;
 import jolie.behaviours.SequentialBehaviour;
 import jolie.behaviours.SimpleBehaviour;
 import jolie.behaviours.SpawnBehaviour;
 
-public class SpawnExecution
+/**
+ * Runs the body of a spawn statement once for each index, each time in
+ * a new context whose state is a copy-on-write copy of a snapshot of the
+ * parent state.
+ * Contexts are created only when they are started: at most
+ * {@link jolie.Interpreter#spawnLimit()} of them run at the same time,
+ * and each terminating context starts the next index.
+ */
+public class SpawnExecution implements SessionListener
 {
 	private class SpawnedContext extends StatefulContext
 	{
 		private final int index;
 
-		public SpawnedContext(
-			StatefulContext parentContext,
-			Behaviour process,
-			int index
-		)
+		public SpawnedContext( int index )
 		{
-			super(
-				new SequentialBehaviour(new Behaviour[] {
-					new SimpleBehaviour()
-					{
-						@Override
-						public void run( StatefulContext ctx ) throws FaultException, ExitingException
-						{
-							parentSpawnProcess.indexPath().getValue( ctx ).setValue( index );
-						}
-					},
-					parentSpawnProcess.body()
-				}), 
-				parentContext );
-			
-			super.addSessionListener(new SessionListener()
-			{
-				@Override
-				public void onSessionExecuted( StatefulContext session )
-				{
-					terminationNotify( SpawnedContext.this );
-				}
-
-				@Override
-				public void onSessionError( StatefulContext session, FaultException fault )
-				{
-					terminationNotify( SpawnedContext.this );
-				}
-			});
-			
+			super( process, context, snapshot.clone() );
 			this.index = index;
+			addSessionListener( SpawnExecution.this );
+		}
+
+		@Override
+		protected boolean handleUncaughtFault( FaultException f )
+		{
+			// A fault terminates only its own branch of the spawn
+			interpreter().logUnhandledFault( f );
+			return true;
+		}
+	}
+
+	private class SetIndexBehaviour extends SimpleBehaviour
+	{
+		@Override
+		public void run( StatefulContext ctx ) throws FaultException, ExitingException
+		{
+			parentSpawnProcess.indexPath().getValue( ctx ).setValue( ((SpawnedContext) ctx).index );
 		}
 	}
 	
-	private final Collection< SpawnedContext > threads = new HashSet<>();
 	private final SpawnBehaviour parentSpawnProcess;
 	private final StatefulContext context;
-	private CountDownLatch latch;
+	private final Behaviour process;
+	private State snapshot;
+	private int upperBound;
+	// The next index to start, and the number of terminated contexts
+	private int next = 0;
+	private int terminated = 0;
 
 	public SpawnExecution( StatefulContext ctx, SpawnBehaviour parent )
 	{
 		this.parentSpawnProcess = parent;
 		this.context = ctx;
+		this.process = new SequentialBehaviour( new Behaviour[] {
+			new SetIndexBehaviour(),
+			parent.body()
+		} );
 	}
 	
 	public void run()
@@ -94,37 +94,55 @@ public class SpawnExecution
 		if ( parentSpawnProcess.inPath() != null ) {
 			parentSpawnProcess.inPath().undef( context );
 		}
-		int upperBound = parentSpawnProcess.upperBound().evaluate().intValue();
-		latch = new CountDownLatch( upperBound );
-		SpawnedContext thread;
-		
-		for( int i = 0; i < upperBound; i++ ) {			
-			thread = new SpawnedContext(
-				context,
-				parentSpawnProcess.body(),
-				i
-			);
-			threads.add( thread );
+		upperBound = parentSpawnProcess.upperBound().evaluate( context ).intValue();
+		if ( upperBound <= 0 ) {
+			return;
 		}
+		// The parent is paused until all contexts terminate, so its state can be shared
+		snapshot = context.state().clone();
+		final int limit = context.interpreter().spawnLimit();
+		final int window = ( limit > 0 && limit < upperBound ) ? limit : upperBound;
 
-		for( SpawnedContext t : threads ) {
-			// We start threads in this other cycle to avoid race conditions on inPath
+		context.pauseExecution();
+		final SpawnedContext[] started = new SpawnedContext[ window ];
+		synchronized( this ) {
+			for( int i = 0; i < window; i++ ) {
+				started[ i ] = new SpawnedContext( next++ );
+			}
+		}
+		for( SpawnedContext t : started ) {
 			t.start();
 		}
-		
-		context.pauseExecution();
 	}
-	
-	private void terminationNotify( SpawnedContext childContext )
+
+	@Override
+	public void onSessionExecuted( StatefulContext session )
 	{
+		final SpawnedContext childContext = (SpawnedContext) session;
+		SpawnedContext nextContext = null;
+		final boolean completed;
 		synchronized( this ) {
 			if ( parentSpawnProcess.inPath() != null ) {
 				parentSpawnProcess.inPath().getValueVector( context.state().root() ).get( childContext.index )
 					.deepCopy( parentSpawnProcess.inPath().getValueVector( childContext.state().root() ).first() );
 			}
-			latch.countDown();
-			if (latch.getCount() == 0)
-				context.start();
+			completed = ++terminated == upperBound;
+			if ( completed ) {
+				snapshot = null;
+			} else if ( next < upperBound ) {
+				nextContext = new SpawnedContext( next++ );
+			}
+		}
+		if ( completed ) {
+			context.start();
+		} else if ( nextContext != null ) {
+			nextContext.start();
 		}
 	}
+
+	@Override
+	public void onSessionError( StatefulContext session, FaultException fault )
+	{
+		// Spawned contexts take their faults in handleUncaughtFault
+	}
 }
@@ -21,15 +21,16 @@
 
 package jolie.runtime;
 
-import java.lang.ref.WeakReference;
-
 /**
+ * A task to be run when a timeout expires, registered with
+ * {@link jolie.Interpreter#addTimeoutHandler(TimeoutHandler)}.
  * @author Fabrizio Montesi
  */
 public abstract class TimeoutHandler implements Runnable
 {
 	private final long time;
 	private volatile boolean cancelled = false;
+	private volatile Cancellable timeout = null;
 
 	public TimeoutHandler( long timeout )
 	{
@@ -40,12 +41,28 @@ public abstract class TimeoutHandler implements Runnable
 	{
 		return time;
 	}
+
+	/**
+	 * Sets the timer entry of this handler, removed by {@link #cancel()}.
+	 */
+	public void setTimeout( Cancellable timeout )
+	{
+		this.timeout = timeout;
+		if ( cancelled ) {
+			timeout.cancel();
+		}
+	}
 	
 	public void cancel()
 	{
 		cancelled = true;
+		final Cancellable t = timeout;
+		if ( t != null ) {
+			t.cancel();
+		}
 	}
 	
+	@Override
 	public void run()
 	{
 		if ( !cancelled ) {
@@ -54,32 +71,4 @@ public abstract class TimeoutHandler implements Runnable
 	}
 
 	protected abstract void onTimeout();
-
-	/**
-	 * Note: this comparator imposes orderings that are inconsistent with equals.
-	 */
-	public static class Comparator implements java.util.Comparator< WeakReference< TimeoutHandler > >
-	{
-		@Override
-		public int compare( WeakReference< TimeoutHandler > wt1, WeakReference< TimeoutHandler > wt2 )
-		{
-			TimeoutHandler t1 = ( wt1 != null ) ? wt1.get() : null;
-			TimeoutHandler t2 = ( wt2 != null ) ? wt2.get() : null;
-			if ( t1 == null ) {
-				return -1;
-			} else if ( t2 == null ) {
-				return 1;
-			}
-			
-			// Both are not null after this
-
-			if ( t1.time < t2.time ) {
-				return -1;
-			} else if ( t1.time == t2.time ) {
-				return 0;
-			} else {
-				return 1;
-			}
-		}
-	}
 }
@@ -27,11 +27,15 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.net.CommChannel;
 import jolie.runtime.expression.Expression;
@@ -57,9 +61,10 @@ class ValueLink extends Value implements Cloneable
 	}
 */
 	
-	public final Value evaluate()
+	@Override
+	public final Value evaluate( StatefulContext ctx )
 	{
-		return getLinkedValue();
+		return linkPath.getValue( ctx );
 	}
 
 	public boolean hasChildren()
@@ -72,6 +77,30 @@ class ValueLink extends Value implements Cloneable
 		return getLinkedValue().hasChildren( childId );
 	}
 
+	@Override
+	ValueVector getChildrenOrNull( String childId )
+	{
+		return getLinkedValue().getChildrenOrNull( childId );
+	}
+
+	@Override
+	Map< String, ValueVector > shareChildren()
+	{
+		return getLinkedValue().shareChildren();
+	}
+
+	@Override
+	boolean mayContainLinks()
+	{
+		return true;
+	}
+
+	@Override
+	void markLinked()
+	{
+		getLinkedValue().markLinked();
+	}
+
 	protected void _refCopy( Value value )
 	{
 		getLinkedValue()._refCopy( value );
@@ -102,17 +131,78 @@ class ValueLink extends Value implements Cloneable
 	{
 		return getLinkedValue().children();
 	}
+
+	public Iterable< Entry< String, ValueVector > > childrenEntries()
+	{
+		return getLinkedValue().childrenEntries();
+	}
 		
 	public Object valueObject()
 	{
 		return getLinkedValue().valueObject();
-	}	
+	}
+
+	@Override
+	Primitive primitiveType()
+	{
+		return getLinkedValue().primitiveType();
+	}
+
+	@Override
+	long longContent()
+	{
+		return getLinkedValue().longContent();
+	}
+
+	@Override
+	double doubleContent()
+	{
+		return getLinkedValue().doubleContent();
+	}
+
+	@Override
+	void setIntContent( int i )
+	{
+		getLinkedValue().setIntContent( i );
+	}
+
+	@Override
+	void setLongContent( long l )
+	{
+		getLinkedValue().setLongContent( l );
+	}
+
+	@Override
+	void setDoubleContent( double d )
+	{
+		getLinkedValue().setDoubleContent( d );
+	}
+
+	@Override
+	void setBoolContent( boolean b )
+	{
+		getLinkedValue().setBoolContent( b );
+	}
 	
 	public ValueLink( VariablePath path )
 	{
 		assert( path != null );
 		linkPath = path;
 	}
+
+	/**
+	 * Returns the path of the value this link points to.
+	 */
+	VariablePath linkPath()
+	{
+		return linkPath;
+	}
+
+	@Override
+	public boolean isUsedInCorrelation()
+	{
+		return getLinkedValue().isUsedInCorrelation();
+	}
 	
 	public boolean isLink()
 	{
@@ -120,18 +210,133 @@ class ValueLink extends Value implements Cloneable
 	}
 }
 
-class ValueImpl extends Value implements Cloneable, Serializable
+/**
+ * Base class for the values that store their own content.
+ * Primitive contents (int, long, double and bool) are kept unboxed in
+ * dedicated slots, and are boxed only if requested through
+ * {@link #valueObject()}.
+ */
+abstract class ContentValue extends Value
 {
-	private static final long serialVersionUID = 1L;
-	
-	private volatile Object valueObject = null;
-	private final AtomicReference< Map< String, ValueVector > > children = new AtomicReference<>();
-	
+	// Either null, a value object, or the Primitive marking the slot in use
+	private volatile Object content = null;
+	// The slots are always written before content, which publishes them
+	private long longSlot;
+	private double doubleSlot;
+
+	/**
+	 * Called after every change of the content of this value.
+	 */
+	protected void contentChanged()
+	{}
+
 	public void setValueObject( Object object )
 	{
-		valueObject = object;
+		if ( object instanceof Integer ) {
+			longSlot = (Integer) object;
+			content = Primitive.INT;
+		} else if ( object instanceof Long ) {
+			longSlot = (Long) object;
+			content = Primitive.LONG;
+		} else if ( object instanceof Double ) {
+			doubleSlot = (Double) object;
+			content = Primitive.DOUBLE;
+		} else if ( object instanceof Boolean ) {
+			longSlot = ( (Boolean) object ) ? 1L : 0L;
+			content = Primitive.BOOL;
+		} else {
+			content = object;
+		}
+		contentChanged();
+	}
+
+	@Override
+	void setIntContent( int i )
+	{
+		longSlot = i;
+		content = Primitive.INT;
+		contentChanged();
+	}
+
+	@Override
+	void setLongContent( long l )
+	{
+		longSlot = l;
+		content = Primitive.LONG;
+		contentChanged();
+	}
+
+	@Override
+	void setDoubleContent( double d )
+	{
+		doubleSlot = d;
+		content = Primitive.DOUBLE;
+		contentChanged();
+	}
+
+	@Override
+	void setBoolContent( boolean b )
+	{
+		longSlot = b ? 1L : 0L;
+		content = Primitive.BOOL;
+		contentChanged();
+	}
+
+	/**
+	 * Removes the content of this value, without notifying the change.
+	 */
+	protected final void clearContent()
+	{
+		content = null;
+	}
+
+	public Object valueObject()
+	{
+		final Object o = content;
+		if ( o instanceof Primitive ) {
+			switch( (Primitive) o ) {
+			case INT:
+				return Integer.valueOf( (int) longSlot );
+			case LONG:
+				return Long.valueOf( longSlot );
+			case DOUBLE:
+				return Double.valueOf( doubleSlot );
+			case BOOL:
+				return Boolean.valueOf( longSlot != 0L );
+			}
+		}
+		return o;
+	}
+
+	@Override
+	Primitive primitiveType()
+	{
+		final Object o = content;
+		return ( o instanceof Primitive ) ? (Primitive) o : null;
+	}
+
+	@Override
+	long longContent()
+	{
+		return longSlot;
+	}
+
+	@Override
+	double doubleContent()
+	{
+		return doubleSlot;
 	}
+}
 
+class ValueImpl extends ContentValue implements Cloneable, Serializable
+{
+	private static final long serialVersionUID = 1L;
+	
+	private final AtomicReference< Map< String, ValueVector > > children = new AtomicReference<>();
+	// True if the children map is shared with other values (copy-on-write)
+	private volatile boolean shared = false;
+	private volatile boolean linked = false;
+	
 	public ValueVector getChildren( String childId )
 	{
 		return children().computeIfAbsent( childId, k -> ValueVector.create() );
@@ -146,19 +351,18 @@ class ValueImpl extends Value implements Cloneable, Serializable
 
 	protected void _refCopy( Value value )
 	{
-		setValueObject( value.valueObject() );
-		this.children.set( value.children() );
-	}
-
-	public final Value evaluate()
-	{
-		return this;
+		assignValue( value );
+		final Map< String, ValueVector > c = value.shareChildren();
+		this.children.set( c );
+		shared = ( c != null );
+		linked = value.mayContainLinks();
 	}
 	
 	public void erase()
 	{
-		valueObject = null;
+		clearContent();
 		children.set( null );
+		shared = false;
 	}
 	
 	protected ValueImpl() {}
@@ -179,6 +383,52 @@ class ValueImpl extends Value implements Cloneable, Serializable
 		Map< String, ValueVector > c = children.get();
 		return ( c != null && c.containsKey( childId ) );
 	}
+
+	@Override
+	ValueVector getChildrenOrNull( String childId )
+	{
+		Map< String, ValueVector > c = ownChildren();
+		return ( c == null ? null : c.get( childId ) );
+	}
+
+	@Override
+	synchronized Map< String, ValueVector > shareChildren()
+	{
+		shared = true;
+		return children.get();
+	}
+
+	@Override
+	boolean mayContainLinks()
+	{
+		return linked;
+	}
+
+	@Override
+	void markLinked()
+	{
+		linked = true;
+	}
+
+	/**
+	 * Makes this value the owner of its children map, copying it
+	 * first if it is shared, and returns it.
+	 */
+	private Map< String, ValueVector > ownChildren()
+	{
+		if ( shared ) {
+			synchronized( this ) {
+				if ( shared ) {
+					final Map< String, ValueVector > c = children.get();
+					if ( c != null ) {
+						children.set( copySharedChildren( c ) );
+					}
+					shared = false;
+				}
+			}
+		}
+		return children.get();
+	}
 	
 	protected void _deepCopy( Value value, boolean copyLinks )
 	{
@@ -191,9 +441,10 @@ class ValueImpl extends Value implements Cloneable, Serializable
 			int i;
 			ValueImpl newValue;
 			Map< String, ValueVector > myChildren = children();
-			for( Entry< String, ValueVector > entry : value.children().entrySet() ) {
+			for( Entry< String, ValueVector > entry : value.childrenEntries() ) {
 				if ( copyLinks && entry.getValue().isLink() ) {
 					myChildren.put( entry.getKey(), ValueVector.createClone( entry.getValue() ) );
+					linked = true;
 				} else {
 					List< Value > otherVector = entry.getValue().values();
 					ValueVector vec = getChildren( entry.getKey(), myChildren );
@@ -201,10 +452,12 @@ class ValueImpl extends Value implements Cloneable, Serializable
 					for( Value v : otherVector ) {
 						if ( copyLinks && v.isLink() ) {
 							vec.set( i, ((ValueLink)v).clone() );
+							linked = true;
 						} else {
 							newValue = ( v.isUsedInCorrelation() ? new CSetValue() : new ValueImpl() );
 							newValue._deepCopy( v, copyLinks );
 							vec.set( i, newValue );
+							linked |= newValue.mayContainLinks();
 						}
 						i++;
 					}
@@ -224,23 +477,26 @@ class ValueImpl extends Value implements Cloneable, Serializable
 	public Map< String, ValueVector > children()
 	{
 		// Create the map if not present
+		ownChildren();
 		children.getAndUpdate( v -> v == null ? new ConcurrentHashMap<> ( INITIAL_CAPACITY, LOAD_FACTOR ) : v );
 		return children.get();
 	}
-	
-	public Object valueObject()
+
+	public Iterable< Entry< String, ValueVector > > childrenEntries()
 	{
-		return valueObject;
+		// Shared maps are never modified, so they can be read without copying them
+		final Map< String, ValueVector > c = children.get();
+		return ( c == null ? Collections.emptyList() : c.entrySet() );
 	}
-
+	
 	protected ValueImpl( Object object )
 	{
-		valueObject = object;
+		setValueObject( object );
 	}
 
 	public ValueImpl( Value val )
 	{
-		valueObject = val.valueObject();
+		assignValue( val );
 	} 
 }
 
@@ -252,13 +508,22 @@ class RootValueImpl extends Value implements Cloneable
 	private final static int INITIAL_CAPACITY = 8;
 	private final static float LOAD_FACTOR = 0.75f;
 
-	private final Map< String, ValueVector > children =
+	private volatile Map< String, ValueVector > children =
 		new ConcurrentHashMap<> ( INITIAL_CAPACITY, LOAD_FACTOR );
+	// True if the children map is shared with other values (copy-on-write)
+	private volatile boolean shared = false;
+	private volatile boolean linked = false;
 
+	/**
+	 * Returns a copy of this root sharing its sub-tree until either of
+	 * them is modified. Links are copied as links, as in a deep clone.
+	 */
 	public RootValueImpl clone()
 	{
 		RootValueImpl ret = new RootValueImpl();
-		ret._deepCopy( this, true );
+		ret.children = shareChildren();
+		ret.shared = true;
+		ret.linked = linked;
 		return ret;
 	}
 
@@ -271,17 +536,17 @@ class RootValueImpl extends Value implements Cloneable
 
 	public ValueVector getChildren( String childId )
 	{
-		return children.computeIfAbsent( childId, k -> ValueVector.create() );
+		return ownChildren().computeIfAbsent( childId, k -> ValueVector.create() );
 	}
 
-	public final Value evaluate()
+	public synchronized void erase()
 	{
-		return this;
-	}
-
-	public void erase()
-	{
-		children.clear();
+		if ( shared ) {
+			children = new ConcurrentHashMap<> ( INITIAL_CAPACITY, LOAD_FACTOR );
+			shared = false;
+		} else {
+			children.clear();
+		}
 	}
 
 	public boolean isLink()
@@ -291,6 +556,49 @@ class RootValueImpl extends Value implements Cloneable
 
 	public final Map< String, ValueVector > children()
 	{
+		return ownChildren();
+	}
+
+	public Iterable< Entry< String, ValueVector > > childrenEntries()
+	{
+		return children.entrySet();
+	}
+
+	@Override
+	ValueVector getChildrenOrNull( String childId )
+	{
+		return ownChildren().get( childId );
+	}
+
+	@Override
+	synchronized Map< String, ValueVector > shareChildren()
+	{
+		shared = true;
+		return children;
+	}
+
+	@Override
+	boolean mayContainLinks()
+	{
+		return linked;
+	}
+
+	@Override
+	void markLinked()
+	{
+		linked = true;
+	}
+
+	private Map< String, ValueVector > ownChildren()
+	{
+		if ( shared ) {
+			synchronized( this ) {
+				if ( shared ) {
+					children = copySharedChildren( children );
+					shared = false;
+				}
+			}
+		}
 		return children;
 	}
 
@@ -309,9 +617,11 @@ class RootValueImpl extends Value implements Cloneable
 		if ( value.hasChildren() ) {
 			int i;
 			ValueImpl newValue;
-			for( Entry< String, ValueVector > entry : value.children().entrySet() ) {
+			final Map< String, ValueVector > children = ownChildren();
+			for( Entry< String, ValueVector > entry : value.childrenEntries() ) {
 				if ( copyLinks && entry.getValue().isLink() ) {
 					children.put( entry.getKey(), ValueVector.createClone( entry.getValue() ) );
+					linked = true;
 				} else {
 					List< Value > otherVector = entry.getValue().values();
 					ValueVector vec = getChildren( entry.getKey(), children );
@@ -319,10 +629,12 @@ class RootValueImpl extends Value implements Cloneable
 					for( Value v : otherVector ) {
 						if ( copyLinks && v.isLink() ) {
 							vec.set( i, ((ValueLink)v).clone() );
+							linked = true;
 						} else {
 							newValue = ( v.isUsedInCorrelation() ? new CSetValue() : new ValueImpl() );
 							newValue._deepCopy( v, copyLinks );
 							vec.set( i, newValue );
+							linked |= newValue.mayContainLinks();
 						}
 						i++;
 					}
@@ -342,17 +654,329 @@ class RootValueImpl extends Value implements Cloneable
 	}
 }
 
+/**
+ * A compact {@link Value} implementation, meant for trees made of many
+ * small nodes (e.g., the content of a message).
+ * Up to {@link #MAX_INLINE_CHILDREN} children are kept in small inline
+ * arrays, which are read without locking and replaced on every insertion.
+ * A node switches to a concurrent map only when it grows beyond that
+ * limit or when its children map is requested by {@link #children()},
+ * which is how generic code (that may share the tree among contexts)
+ * accesses it.
+ */
+class CompactValueImpl extends ContentValue implements Cloneable
+{
+	private final static int MAX_INLINE_CHILDREN = 8;
+	private final static int INITIAL_CAPACITY = 8;
+	private final static float LOAD_FACTOR = 0.75f;
+
+	private static class InlineChildren
+	{
+		private final String[] keys;
+		private final ValueVector[] vectors;
+
+		private InlineChildren( String[] keys, ValueVector[] vectors )
+		{
+			this.keys = keys;
+			this.vectors = vectors;
+		}
+
+		private ValueVector get( String key )
+		{
+			for( int i = 0; i < keys.length; i++ ) {
+				if ( keys[ i ].equals( key ) ) {
+					return vectors[ i ];
+				}
+			}
+			return null;
+		}
+
+		private List< Entry< String, ValueVector > > entries()
+		{
+			@SuppressWarnings( "unchecked" )
+			final Entry< String, ValueVector >[] entries = new Entry[ keys.length ];
+			for( int i = 0; i < keys.length; i++ ) {
+				entries[ i ] = new SimpleImmutableEntry<>( keys[ i ], vectors[ i ] );
+			}
+			return Arrays.asList( entries );
+		}
+
+		private InlineChildren with( String key, ValueVector vector )
+		{
+			final int size = keys.length;
+			final String[] newKeys = Arrays.copyOf( keys, size + 1 );
+			final ValueVector[] newVectors = Arrays.copyOf( vectors, size + 1 );
+			newKeys[ size ] = key;
+			newVectors[ size ] = vector;
+			return new InlineChildren( newKeys, newVectors );
+		}
+	}
+
+	// Either null, an InlineChildren or a Map< String, ValueVector >
+	private volatile Object children = null;
+	// True if the children are shared with other values (copy-on-write)
+	private volatile boolean shared = false;
+	private volatile boolean linked = false;
+
+	protected CompactValueImpl() {}
+
+	@SuppressWarnings( "unchecked" )
+	private static Map< String, ValueVector > asMap( Object children )
+	{
+		return (Map< String, ValueVector >) children;
+	}
+
+	public boolean isLink()
+	{
+		return false;
+	}
+
+	public void erase()
+	{
+		clearContent();
+		children = null;
+		shared = false;
+	}
+
+	public boolean hasChildren()
+	{
+		final Object c = children;
+		if ( c instanceof InlineChildren ) {
+			return true;
+		}
+		return c != null && !asMap( c ).isEmpty();
+	}
+
+	public boolean hasChildren( String childId )
+	{
+		final Object c = children;
+		if ( c instanceof InlineChildren ) {
+			return ((InlineChildren) c).get( childId ) != null;
+		}
+		return c != null && asMap( c ).containsKey( childId );
+	}
+
+	@Override
+	ValueVector getChildrenOrNull( String childId )
+	{
+		final Object c = ownChildren();
+		if ( c instanceof InlineChildren ) {
+			return ((InlineChildren) c).get( childId );
+		} else if ( c == null ) {
+			return null;
+		}
+		return asMap( c ).get( childId );
+	}
+
+	public ValueVector getChildren( String childId )
+	{
+		final ValueVector vec = getChildrenOrNull( childId );
+		return ( vec == null ? addChildren( childId ) : vec );
+	}
+
+	private synchronized ValueVector addChildren( String childId )
+	{
+		final Object c = ownChildren();
+		if ( c == null ) {
+			final ValueVector vec = ValueVector.create();
+			children = new InlineChildren( new String[] { childId }, new ValueVector[] { vec } );
+			return vec;
+		} else if ( c instanceof InlineChildren ) {
+			final InlineChildren inline = (InlineChildren) c;
+			ValueVector vec = inline.get( childId );
+			if ( vec == null ) {
+				if ( inline.keys.length >= MAX_INLINE_CHILDREN ) {
+					return promote().computeIfAbsent( childId, k -> ValueVector.create() );
+				}
+				vec = ValueVector.create();
+				children = inline.with( childId, vec );
+			}
+			return vec;
+		}
+		return asMap( c ).computeIfAbsent( childId, k -> ValueVector.create() );
+	}
+
+	public Map< String, ValueVector > children()
+	{
+		final Object c = ownChildren();
+		if ( c instanceof InlineChildren || c == null ) {
+			return promote();
+		}
+		return asMap( c );
+	}
+
+	public Iterable< Entry< String, ValueVector > > childrenEntries()
+	{
+		final Object c = children;
+		if ( c instanceof InlineChildren ) {
+			return ((InlineChildren) c).entries();
+		} else if ( c == null ) {
+			return Collections.emptyList();
+		}
+		return asMap( c ).entrySet();
+	}
+
+	private synchronized Map< String, ValueVector > promote()
+	{
+		final Object c = ownChildren();
+		if ( c instanceof InlineChildren || c == null ) {
+			final Map< String, ValueVector > map = new ConcurrentHashMap<>( INITIAL_CAPACITY, LOAD_FACTOR );
+			if ( c != null ) {
+				final InlineChildren inline = (InlineChildren) c;
+				for( int i = 0; i < inline.keys.length; i++ ) {
+					map.put( inline.keys[ i ], inline.vectors[ i ] );
+				}
+			}
+			children = map;
+			return map;
+		}
+		return asMap( c );
+	}
+
+	@Override
+	synchronized Map< String, ValueVector > shareChildren()
+	{
+		shared = true;
+		final Object c = children;
+		if ( c instanceof InlineChildren ) {
+			final InlineChildren inline = (InlineChildren) c;
+			final Map< String, ValueVector > map = new ConcurrentHashMap<>( INITIAL_CAPACITY, LOAD_FACTOR );
+			for( int i = 0; i < inline.keys.length; i++ ) {
+				map.put( inline.keys[ i ], inline.vectors[ i ] );
+			}
+			return map;
+		}
+		return asMap( c );
+	}
+
+	@Override
+	boolean mayContainLinks()
+	{
+		return linked;
+	}
+
+	@Override
+	void markLinked()
+	{
+		linked = true;
+	}
+
+	/**
+	 * Makes this value the owner of its children, copying them first
+	 * if they are shared, and returns them.
+	 */
+	private Object ownChildren()
+	{
+		if ( shared ) {
+			synchronized( this ) {
+				if ( shared ) {
+					children = copyShared( children );
+					shared = false;
+				}
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * Copies shared children, keeping them inline if they fit.
+	 */
+	private static Object copyShared( Object c )
+	{
+		if ( c instanceof InlineChildren ) {
+			final InlineChildren inline = (InlineChildren) c;
+			final ValueVector[] vectors = new ValueVector[ inline.vectors.length ];
+			for( int i = 0; i < vectors.length; i++ ) {
+				vectors[ i ] = copySharedVector( inline.vectors[ i ] );
+			}
+			return new InlineChildren( inline.keys, vectors );
+		} else if ( c == null || asMap( c ).isEmpty() ) {
+			return null;
+		}
+
+		final Map< String, ValueVector > map = asMap( c );
+		if ( map.size() > MAX_INLINE_CHILDREN ) {
+			return copySharedChildren( map );
+		}
+		final String[] keys = new String[ map.size() ];
+		final ValueVector[] vectors = new ValueVector[ keys.length ];
+		int i = 0;
+		for( Entry< String, ValueVector > entry : map.entrySet() ) {
+			keys[ i ] = entry.getKey();
+			vectors[ i++ ] = copySharedVector( entry.getValue() );
+		}
+		return new InlineChildren( keys, vectors );
+	}
+
+	protected void _refCopy( Value value )
+	{
+		assignValue( value );
+		final Map< String, ValueVector > c = value.shareChildren();
+		children = c;
+		shared = ( c != null );
+		linked = value.mayContainLinks();
+	}
+
+	protected void _deepCopy( Value value, boolean copyLinks )
+	{
+		assignValue( value );
+
+		if ( value.hasChildren() ) {
+			int i;
+			Value newValue;
+			for( Entry< String, ValueVector > entry : value.childrenEntries() ) {
+				if ( copyLinks && entry.getValue().isLink() ) {
+					children().put( entry.getKey(), ValueVector.createClone( entry.getValue() ) );
+					linked = true;
+				} else {
+					List< Value > otherVector = entry.getValue().values();
+					ValueVector vec = getChildren( entry.getKey() );
+					i = 0;
+					for( Value v : otherVector ) {
+						if ( copyLinks && v.isLink() ) {
+							vec.set( i, ((ValueLink)v).clone() );
+							linked = true;
+						} else {
+							newValue = ( v.isUsedInCorrelation() ? new CSetValue() : new CompactValueImpl() );
+							newValue._deepCopy( v, copyLinks );
+							vec.set( i, newValue );
+							linked |= newValue.mayContainLinks();
+						}
+						i++;
+					}
+				}
+			}
+		}
+	}
+
+	public CompactValueImpl clone()
+	{
+		CompactValueImpl ret = new CompactValueImpl();
+		ret._deepCopy( this, true );
+		return ret;
+	}
+}
+
 class CSetValue extends ValueImpl
 {
+	private Runnable changeListener = null;
+
+	protected void setChangeListener( Runnable changeListener )
+	{
+		this.changeListener = changeListener;
+	}
+
+	protected Runnable changeListener()
+	{
+		return changeListener;
+	}
+
 	@Override
-	public void setValueObject( Object object )
+	protected void contentChanged()
 	{
-		//CommCore commCore = Interpreter.getInstance().commCore();
-		//synchronized( commCore.correlationLock() )
-			//removeFromRadixTree();
-			super.setValueObject( object );
-			//addToRadixTree();
-		//}
+		if ( changeListener != null ) {
+			changeListener.run();
+		}
 	}
 
 	@Override
@@ -378,6 +1002,14 @@ class CSetValue extends ValueImpl
  */
 public abstract class Value implements Expression, Cloneable
 {
+	/**
+	 * The primitive types that values can store without boxing.
+	 */
+	enum Primitive
+	{
+		INT, LONG, DOUBLE, BOOL
+	}
+
 	public abstract boolean isLink();
 	
 	public static final Value UNDEFINED_VALUE = Value.create();
@@ -402,10 +1034,36 @@ public abstract class Value implements Expression, Cloneable
 		return new ValueImpl();
 	}
 
+	/**
+	 * Creates a value with the compact layout of {@link CompactValueImpl}.
+	 * The content of copies made with {@link #deepCopy(Value)} is compact
+	 * as well.
+	 * @return the created value
+	 */
+	public final static Value createCompact()
+	{
+		return new CompactValueImpl();
+	}
+
 	public final static Value createCSetValue()
 	{
 		return new CSetValue();
 	}
+
+	/**
+	 * Creates a correlation value sharing the content of the passed value,
+	 * which runs the passed listener every time its content is changed.
+	 * @param value the value whose content is referred by the created one
+	 * @param changeListener the listener to run on every change
+	 * @return the created correlation value
+	 */
+	public final static Value createCSetValue( Value value, Runnable changeListener )
+	{
+		CSetValue ret = new CSetValue();
+		ret._refCopy( value );
+		ret.setChangeListener( changeListener );
+		return ret;
+	}
 	
 	public final static Value create( Boolean bool )
 	{
@@ -437,6 +1095,34 @@ public abstract class Value implements Expression, Cloneable
 		return new ValueImpl( b );
 	}
 	
+	public final static Value create( int i )
+	{
+		final Value ret = new ValueImpl();
+		ret.setIntContent( i );
+		return ret;
+	}
+
+	public final static Value create( long l )
+	{
+		final Value ret = new ValueImpl();
+		ret.setLongContent( l );
+		return ret;
+	}
+
+	public final static Value create( double d )
+	{
+		final Value ret = new ValueImpl();
+		ret.setDoubleContent( d );
+		return ret;
+	}
+
+	public final static Value create( boolean b )
+	{
+		final Value ret = new ValueImpl();
+		ret.setBoolContent( b );
+		return ret;
+	}
+
 	public final static Value create( Value value )
 	{
 		return new ValueImpl( value );
@@ -449,10 +1135,77 @@ public abstract class Value implements Expression, Cloneable
 	
 	public final static Value createDeepCopy( Value value )
 	{
-		Value ret = Value.create();
+		Value ret = Value.createCompact();
 		ret.deepCopy( value );
 		return ret;
 	}
+
+	/**
+	 * Creates a copy of the passed value, as {@link #createDeepCopy(Value)}
+	 * does, which shares the sub-tree of the passed value until either of
+	 * them is modified (copy-on-write).
+	 * Nodes are copied lazily, one level at a time, when their children
+	 * are accessed. Links, and values that may contain them, are deep copied
+	 * immediately instead, since links must be resolved by the caller.
+	 * @param value the value to copy
+	 * @return the copy
+	 */
+	public final static Value createLazyCopy( Value value )
+	{
+		if ( value.isLink() || value.mayContainLinks() ) {
+			return createDeepCopy( value );
+		}
+		final ValueImpl ret = new ValueImpl();
+		ret._refCopy( value );
+		return ret;
+	}
+
+	private final static int SHARED_INITIAL_CAPACITY = 8;
+	private final static float SHARED_LOAD_FACTOR = 0.75f;
+
+	/**
+	 * Copies a level of a shared sub-tree: the returned map has fresh
+	 * vectors, whose elements share the children of the original ones.
+	 * Shared maps are never modified, so they can be read concurrently.
+	 */
+	static Map< String, ValueVector > copySharedChildren( Map< String, ValueVector > sharedChildren )
+	{
+		final Map< String, ValueVector > ret =
+			new ConcurrentHashMap<>( Math.max( SHARED_INITIAL_CAPACITY, sharedChildren.size() * 2 ), SHARED_LOAD_FACTOR );
+		for( Entry< String, ValueVector > entry : sharedChildren.entrySet() ) {
+			ret.put( entry.getKey(), copySharedVector( entry.getValue() ) );
+		}
+		return ret;
+	}
+
+	/**
+	 * Copies a vector of a shared sub-tree: the elements of the returned
+	 * vector share the children of the original ones.
+	 */
+	static ValueVector copySharedVector( ValueVector vec )
+	{
+		if ( vec.isLink() ) {
+			return ValueVector.createClone( vec );
+		}
+
+		final ValueVector newVec = ValueVector.create();
+		for( Value v : vec.values() ) {
+			if ( v.isLink() ) {
+				newVec.add( ((ValueLink)v).clone() );
+			} else if ( v.isUsedInCorrelation() ) {
+				// The copy keeps notifying the changes tracked by the original one
+				final CSetValue newValue = new CSetValue();
+				newValue._refCopy( v );
+				newValue.setChangeListener( ((CSetValue)v).changeListener() );
+				newVec.add( newValue );
+			} else {
+				final ValueImpl newValue = new ValueImpl();
+				newValue._refCopy( v );
+				newVec.add( newValue );
+			}
+		}
+		return newVec;
+	}
 	
 	/**
 	 * Makes this value an identical copy (by value) of the parameter, considering also its sub-tree.
@@ -464,6 +1217,11 @@ public abstract class Value implements Expression, Cloneable
 		_deepCopy( value, false );
 	}
 
+	/**
+	 * Makes this value refer to the content of the parameter.
+	 * The sub-tree is shared until either value is modified (copy-on-write).
+	 * @param value The value whose content is to be referred.
+	 */
 	public final void refCopy( Value value )
 	{
 		_refCopy( value );
@@ -472,12 +1230,93 @@ public abstract class Value implements Expression, Cloneable
 	protected abstract void _refCopy( Value value );
 	public abstract void erase();
 	protected abstract void _deepCopy( Value value, boolean copyLinks );
+	/**
+	 * Returns the children map of this value, creating it (and copying it,
+	 * if it is shared) if needed: meant for callers that modify it.
+	 * Read-only callers should use {@link #childrenEntries()} instead.
+	 */
 	public abstract Map< String, ValueVector > children();
+
+	/**
+	 * Returns the children of this value for reading only. Unlike
+	 * {@link #children()}, it neither creates, copies nor changes the
+	 * layout of the children of this value.
+	 */
+	public abstract Iterable< Entry< String, ValueVector > > childrenEntries();
 	public abstract Object valueObject();
 	protected abstract void setValueObject( Object object );
 	public abstract boolean hasChildren();
 	public abstract boolean hasChildren( String childId );
 	public abstract ValueVector getChildren( String childId );
+
+	/**
+	 * Returns the children vector for childId, or {@code null} if there is
+	 * none, without creating the children map of this value.
+	 */
+	ValueVector getChildrenOrNull( String childId )
+	{
+		return children().get( childId );
+	}
+
+	/**
+	 * Returns the type of the primitive content of this value, or
+	 * {@code null} if the content is not stored as a primitive.
+	 * The content is then read with {@link #longContent()} (int, long
+	 * and bool, as 0 or 1) or {@link #doubleContent()}.
+	 */
+	Primitive primitiveType()
+	{
+		return null;
+	}
+
+	long longContent()
+	{
+		return 0L;
+	}
+
+	double doubleContent()
+	{
+		return 0.0;
+	}
+
+	void setIntContent( int i )
+	{
+		setValueObject( i );
+	}
+
+	void setLongContent( long l )
+	{
+		setValueObject( l );
+	}
+
+	void setDoubleContent( double d )
+	{
+		setValueObject( d );
+	}
+
+	void setBoolContent( boolean b )
+	{
+		setValueObject( b );
+	}
+
+	/**
+	 * Returns the children map of this value, which from now on is
+	 * treated as shared: this value copies it before its next access
+	 * to a child, and it is never modified afterwards.
+	 * May return {@code null} if this value has no children.
+	 */
+	abstract Map< String, ValueVector > shareChildren();
+
+	/**
+	 * Returns {@code false} only if the sub-tree of this value contains
+	 * no links.
+	 */
+	abstract boolean mayContainLinks();
+
+	/**
+	 * Records that a link has been put in the sub-tree of this value.
+	 */
+	abstract void markLinked();
 	
 	@Override
 	public abstract Value clone();
@@ -501,7 +1340,15 @@ public abstract class Value implements Expression, Cloneable
 		getFirstChild( childId ).setValue( object );
 	}
 	
-	public abstract Value evaluate();
+	/**
+	 * Values evaluate to themselves, links to the value they point to
+	 * in the state of ctx.
+	 */
+	@Override
+	public Value evaluate( StatefulContext ctx )
+	{
+		return this;
+	}
 	
 	public final void setValue( Object object )
 	{
@@ -532,6 +1379,26 @@ public abstract class Value implements Expression, Cloneable
 	{
 		setValueObject( object );
 	}
+
+	public final void setValue( int i )
+	{
+		setIntContent( i );
+	}
+
+	public final void setValue( long l )
+	{
+		setLongContent( l );
+	}
+
+	public final void setValue( double d )
+	{
+		setDoubleContent( d );
+	}
+
+	public final void setValue( boolean b )
+	{
+		setBoolContent( b );
+	}
 		
 	public final synchronized boolean equals( Value val )
 	{
@@ -549,8 +1416,8 @@ public abstract class Value implements Expression, Cloneable
 				r = boolValue() == val.boolValue();
 			} else if ( isLong() ) {
 				r = longValue() == val.longValue();
-			} else if ( valueObject() != null ) {
-				r = valueObject().equals( val.valueObject() );
+			} else if ( objectContent() != null ) {
+				r = objectContent().equals( val.valueObject() );
 			}
 		} else {
 			// undefined == undefined
@@ -561,42 +1428,55 @@ public abstract class Value implements Expression, Cloneable
 	
 	public final boolean isInt()
 	{
-		return ( valueObject() instanceof Integer );
+		final Primitive p = primitiveType();
+		return ( p == null ? valueObject() instanceof Integer : p == Primitive.INT );
 	}
 	
 	public final boolean isLong()
 	{
-		return ( valueObject() instanceof Long );
+		final Primitive p = primitiveType();
+		return ( p == null ? valueObject() instanceof Long : p == Primitive.LONG );
 	}
 	
 	public final boolean isBool()
 	{
-		return ( valueObject() instanceof Boolean );
+		final Primitive p = primitiveType();
+		return ( p == null ? valueObject() instanceof Boolean : p == Primitive.BOOL );
 	}
 	
 	public final boolean isByteArray()
 	{
-		return ( valueObject() instanceof ByteArray );
+		return ( objectContent() instanceof ByteArray );
 	}
 	
 	public final boolean isDouble()
 	{
-		return ( valueObject() instanceof Double );
+		final Primitive p = primitiveType();
+		return ( p == null ? valueObject() instanceof Double : p == Primitive.DOUBLE );
 	}
 	
 	public final boolean isString()
 	{
-		return ( valueObject() instanceof String );
+		return ( objectContent() instanceof String );
 	}
 	
 	public final boolean isChannel()
 	{
-		return ( valueObject() instanceof CommChannel );
+		return ( objectContent() instanceof CommChannel );
 	}
 	
 	public final boolean isDefined()
 	{
-		return ( valueObject() != null );
+		return ( primitiveType() != null || valueObject() != null );
+	}
+
+	/**
+	 * Returns the content of this value if it is not stored as a
+	 * primitive, {@code null} otherwise.
+	 */
+	private Object objectContent()
+	{
+		return ( primitiveType() == null ? valueObject() : null );
 	}
 	
 	public void setValue( CommChannel value )
@@ -606,7 +1486,7 @@ public abstract class Value implements Expression, Cloneable
 	
 	public CommChannel channelValue()
 	{
-		Object o = valueObject();
+		Object o = objectContent();
 		if ( o instanceof CommChannel == false ) {
 			return null;
 		}
@@ -625,6 +1505,19 @@ public abstract class Value implements Expression, Cloneable
 	public final String strValueStrict()
 		throws TypeCastingException
 	{
+		final Primitive p = primitiveType();
+		if ( p != null ) {
+			switch( p ) {
+			case INT:
+				return Integer.toString( (int) longContent() );
+			case LONG:
+				return Long.toString( longContent() );
+			case DOUBLE:
+				return Double.toString( doubleContent() );
+			case BOOL:
+				return Boolean.toString( longContent() != 0L );
+			}
+		}
 		Object o = valueObject();
 		if ( o == null ) {
 			throw new TypeCastingException();
@@ -706,6 +1599,18 @@ public abstract class Value implements Expression, Cloneable
 	public final int intValueStrict()
 		throws TypeCastingException
 	{
+		final Primitive p = primitiveType();
+		if ( p != null ) {
+			switch( p ) {
+			case INT:
+			case LONG:
+				return (int) longContent();
+			case DOUBLE:
+				return (int) doubleContent();
+			case BOOL:
+				return ( longContent() != 0L ) ? 1 : 0;
+			}
+		}
 		int r = 0;
 		Object o = valueObject();
 		if ( o == null ) {
@@ -746,6 +1651,17 @@ public abstract class Value implements Expression, Cloneable
 	public boolean boolValueStrict()
 		throws TypeCastingException
 	{
+		final Primitive p = primitiveType();
+		if ( p != null ) {
+			switch( p ) {
+			case INT:
+			case LONG:
+			case BOOL:
+				return longContent() > 0L;
+			case DOUBLE:
+				return (long) doubleContent() > 0L;
+			}
+		}
 		boolean r = false;
 		Object o = valueObject();
 		if ( o == null ) {
@@ -781,6 +1697,17 @@ public abstract class Value implements Expression, Cloneable
 	public final long longValueStrict()
 		throws TypeCastingException
 	{
+		final Primitive p = primitiveType();
+		if ( p != null ) {
+			switch( p ) {
+			case INT:
+			case LONG:
+			case BOOL:
+				return longContent();
+			case DOUBLE:
+				return (long) doubleContent();
+			}
+		}
 		long r = 0L;
 		Object o = valueObject();
 		if ( o == null ) {
@@ -821,6 +1748,17 @@ public abstract class Value implements Expression, Cloneable
 	public final double doubleValueStrict()
 		throws TypeCastingException
 	{
+		final Primitive p = primitiveType();
+		if ( p != null ) {
+			switch( p ) {
+			case INT:
+			case LONG:
+			case BOOL:
+				return longContent();
+			case DOUBLE:
+				return doubleContent();
+			}
+		}
 		double r = 0.0;
 		Object o = valueObject();
 		if ( o == null ) {
@@ -893,7 +1831,7 @@ public abstract class Value implements Expression, Cloneable
 		}
 	}
 	
-	public synchronized final void multiply( Value val )
+	public final synchronized void multiply( Value val )
 	{
 		if ( isDefined() ) {
 			if ( isInt() ) {
@@ -910,7 +1848,7 @@ public abstract class Value implements Expression, Cloneable
 		}
 	}
 	
-	public synchronized final void divide( Value val )
+	public final synchronized void divide( Value val )
 	{
 		if ( !isDefined() ) {
 			setValue( 0 );
@@ -923,7 +1861,7 @@ public abstract class Value implements Expression, Cloneable
 		}
 	}
 	
-	public synchronized final void modulo( Value val )
+	public final synchronized void modulo( Value val )
 	{
 		if ( !isDefined() ) {
 			assignValue( val );
@@ -938,7 +1876,25 @@ public abstract class Value implements Expression, Cloneable
 	
 	public final void assignValue( Value val )
 	{
-		setValueObject( val.valueObject() );
+		final Primitive p = val.primitiveType();
+		if ( p == null ) {
+			setValueObject( val.valueObject() );
+		} else {
+			switch( p ) {
+			case INT:
+				setIntContent( (int) val.longContent() );
+				break;
+			case LONG:
+				setLongContent( val.longContent() );
+				break;
+			case DOUBLE:
+				setDoubleContent( val.doubleContent() );
+				break;
+			case BOOL:
+				setBoolContent( val.longContent() != 0L );
+				break;
+			}
+		}
 	}
 	
 	public Expression cloneExpression( TransformationReason reason )
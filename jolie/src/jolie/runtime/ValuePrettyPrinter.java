@@ -100,7 +100,7 @@ public class ValuePrettyPrinter
 		throws IOException
 	{
 		Integer i;
-		for( Entry< String, ValueVector > entry : value.children().entrySet() ) {
+		for( Entry< String, ValueVector > entry : value.childrenEntries() ) {
 			if ( entry.getValue().isEmpty() ) {
 				writeIndented( "." );
 				writer.write( entry.getKey() );
@@ -22,6 +22,7 @@
 
 package jolie.runtime;
 
+import jolie.StatefulContext;
 import jolie.runtime.expression.Expression;
 import jolie.behaviours.TransformationReason;
 
@@ -39,9 +40,9 @@ public class ValueVectorSizeExpression implements Expression
 		return new ValueVectorSizeExpression( path );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
 		// TODO: if path points to an undefined vector, we are creating a new vector
-		return Value.create( path.getValueVector().size() );
+		return Value.create( path.getValueVector( ctx ).size() );
 	}
 }
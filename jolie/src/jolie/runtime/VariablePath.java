@@ -22,7 +22,6 @@
 package jolie.runtime;
 
 
-import jolie.ExecutionThread;
 import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.expression.Expression;
@@ -41,6 +40,11 @@ public class VariablePath implements Expression, Cloneable
 	}
 
 	private final Pair< Expression, Expression >[] path; // Right Expression may be null
+	// Segments with constant expressions, resolved once: null keys and
+	// DYNAMIC_INDEX indexes are evaluated at each access
+	private final String[] keys;
+	private final int[] indexes;
+	private static final int DYNAMIC_INDEX = -1;
 
 	protected final Pair< Expression, Expression >[] path()
 	{
@@ -76,9 +80,9 @@ public class VariablePath implements Expression, Cloneable
 		return new VariablePath( clonedPath );
 	}
 
-	public final VariablePath containedSubPath( VariablePath otherVarPath )
+	public final VariablePath containedSubPath( StatefulContext ctx, VariablePath otherVarPath )
 	{
-		if ( getRootValue() != otherVarPath.getRootValue() )
+		if ( getRootValue( ctx ) != otherVarPath.getRootValue( ctx ) )
 			return null;
 
 		// If the other path is shorter than this, it's not a subpath.
@@ -93,15 +97,15 @@ public class VariablePath implements Expression, Cloneable
 			otherPair = otherVarPath.path[i];
 			
 			// *.element_name is not a subpath of *.other_name
-			if ( !pair.key().evaluate().strValue().equals( otherPair.key().evaluate().strValue() ) )
+			if ( !keyAt( ctx, i ).equals( otherVarPath.keyAt( ctx, i ) ) )
 				return null;
 			
 			// If element name is equal, check for the same index
 			expr = pair.value();
 			otherExpr = otherPair.value();
 			
-			myIndex = ( expr == null ) ? 0 : expr.evaluate().intValue();
-			otherIndex = ( otherExpr == null ) ? 0 : otherExpr.evaluate().intValue();
+			myIndex = ( expr == null ) ? 0 : indexAt( ctx, i );
+			otherIndex = ( otherExpr == null ) ? 0 : otherVarPath.indexAt( ctx, i );
 			if ( myIndex != otherIndex )
 				return null;
 		}
@@ -125,20 +129,49 @@ public class VariablePath implements Expression, Cloneable
 	public VariablePath( Pair< Expression, Expression >[] path )
 	{
 		this.path = path;
+		this.keys = new String[ path.length ];
+		this.indexes = new int[ path.length ];
+		for( int i = 0; i < path.length; i++ ) {
+			final Expression key = path[ i ].key();
+			final Expression index = path[ i ].value();
+			if ( isConstant( key ) ) {
+				keys[ i ] = ((Value) key).strValue().intern();
+			}
+			indexes[ i ] = ( index == null ) ? 0
+				: ( isConstant( index ) ? ((Value) index).intValue() : DYNAMIC_INDEX );
+		}
 	}
-	
-	protected Value getRootValue( StatefulContext ctx ) 
+
+	private static boolean isConstant( Expression expression )
 	{
-		return ctx.state().root();
+		return expression instanceof Value && !((Value) expression).isLink();
+	}
+
+	private String keyAt( StatefulContext ctx, int i )
+	{
+		final String key = keys[ i ];
+		return ( key == null ) ? evaluateSegment( path[ i ].key(), ctx ).strValue() : key;
+	}
+
+	// Must be called only for segments with an index expression
+	private int indexAt( StatefulContext ctx, int i )
+	{
+		final int index = indexes[ i ];
+		return ( index == DYNAMIC_INDEX ) ? evaluateSegment( path[ i ].value(), ctx ).intValue() : index;
+	}
+
+	// Paths resolved against a value without a context must be static
+	private static Value evaluateSegment( Expression expression, StatefulContext ctx )
+	{
+		if ( ctx == null ) {
+			throw new IllegalStateException( "Dynamic path segments need a context to be evaluated" );
+		}
+		return expression.evaluate( ctx );
 	}
 	
-	@Deprecated
-	protected Value getRootValue()
+	protected Value getRootValue( StatefulContext ctx ) 
 	{
-//		System.out.println( "Trying to get executionThread from: " + Thread.currentThread() + " (" + Thread.currentThread().getClass().getName() + ") Found: " +  StatefulContext.currentContext());
-		if (ExecutionThread.currentThread() == null)
-			return StatefulContext.currentContext().state().root();
-		return ExecutionThread.currentThread().state().root();
+		return ctx.state().root();
 	}
 	
 	public final void undef(StatefulContext ctx)
@@ -151,8 +184,8 @@ public class VariablePath implements Expression, Cloneable
 
 		for( int i = 0; i < path.length; i++ ) {
 			pair = path[i];
-			keyStr = pair.key().evaluate().strValue();
-			currVector = currValue.children().get( keyStr );
+			keyStr = keyAt( ctx, i );
+			currVector = currValue.getChildrenOrNull( keyStr );
 			if ( currVector == null ) {
 				return;
 			} else if ( currVector.size() < 1 ) {
@@ -168,7 +201,7 @@ public class VariablePath implements Expression, Cloneable
 					currValue.children().remove( keyStr );
 				}
 			} else {
-				index = pair.value().evaluate().intValue();
+				index = indexAt( ctx, i );
 				if ( (i+1) < path.length ) {
 					if ( currVector.size() <= index ) {
 						return;
@@ -186,22 +219,39 @@ public class VariablePath implements Expression, Cloneable
 	@Deprecated
 	public final Value getValue()
 	{
-		return getValue( getRootValue() );
+		return getValue( StatefulContext.currentContext() );
 	}	
 	
 	public final Value getValue( StatefulContext ctx )
 	{
-		return getValue( getRootValue( ctx ) );
+		return getValue( getRootValue( ctx ), ctx );
 	}
 
+	/**
+	 * Like {@link #getValue(StatefulContext)}, starting from currValue.
+	 * Without a context, the segments of this path must be constant.
+	 * @throws IllegalStateException if this path has a dynamic segment
+	 */
 	public final Value getValue( Value currValue )
 	{
-		for( Pair< Expression, Expression > pair : path ) {
-			final String keyStr = pair.key().evaluate().strValue();
+		return getValue( currValue, null );
+	}
+
+	/**
+	 * Returns the value pointed by this path, starting from currValue
+	 * instead of the root value of ctx.
+	 * @param currValue the value to start from
+	 * @param ctx the context for evaluating the segments of this path
+	 * @return the value pointed by this path
+	 */
+	public final Value getValue( Value currValue, StatefulContext ctx )
+	{
+		for( int i = 0; i < path.length; i++ ) {
+			final String keyStr = keyAt( ctx, i );
 			currValue =
-				pair.value() == null
+				path[ i ].value() == null
 				? currValue.getFirstChild( keyStr )
-				: currValue.getChildren( keyStr ).get( pair.value().evaluate().intValue() );
+				: currValue.getChildren( keyStr ).get( indexAt( ctx, i ) );
 		}
 
 		return currValue;
@@ -217,53 +267,72 @@ public class VariablePath implements Expression, Cloneable
 
 		if ( path.length == 0 ) {
 			currValue.refCopy( value );
+			ctx.state().correlationVariablesReplaced();
 		} else {
 			for( int i = 0; i < path.length; i++ ) {
 				pair = path[i];
-				keyStr = pair.key().evaluate().strValue();
+				keyStr = keyAt( ctx, i );
 				currVector = currValue.getChildren( keyStr );
 				if ( pair.value() == null ) {
 					if ( (i+1) < path.length ) {
 						currValue = currVector.get( 0 );
 					} else { // We're finished
-						if ( currVector.get( 0 ).isUsedInCorrelation() ) {
-							currVector.get( 0 ).refCopy( value );
-						} else {
-							currVector.set( 0, value );
-						}
+						setElement( ctx, currVector, 0, value );
 					}
 				} else {
-					index = pair.value().evaluate().intValue();
+					index = indexAt( ctx, i );
 					if ( (i+1) < path.length ) {
 						currValue = currVector.get( index );
 					} else {
-						if ( currVector.get( index ).isUsedInCorrelation() ) {
-							currVector.get( index ).refCopy( value );
-						} else {
-							currVector.set( index, value );
-						}
+						setElement( ctx, currVector, index, value );
 					}
 				}
 			}
 		}
 	}
 
+	private static void setElement( StatefulContext ctx, ValueVector vector, int index, Value value )
+	{
+		final Value oldValue = vector.get( index );
+		if ( oldValue.isUsedInCorrelation() && !value.isUsedInCorrelation() ) {
+			oldValue.refCopy( value );
+		} else if ( oldValue.isLink() && value.isUsedInCorrelation() ) {
+			// Correlation values are tracked where they are stored, not where they are aliased
+			((ValueLink)oldValue).linkPath().setValue( ctx, value );
+		} else {
+			vector.set( index, value );
+			if ( oldValue.isUsedInCorrelation() || oldValue.hasChildren() ) {
+				ctx.state().correlationVariablesReplaced();
+			}
+		}
+	}
+
 	@Deprecated
 	public final Value getValueOrNull()
 	{
-		return getValueOrNull( getRootValue() );
+		return getValueOrNull( StatefulContext.currentContext() );
 	}
 	
 	public final Value getValueOrNull( StatefulContext ctx )
 	{
-		return getValueOrNull( getRootValue( ctx ) );
+		return getValueOrNull( getRootValue( ctx ), ctx );
 	}
 	
+	/**
+	 * Like {@link #getValueOrNull(StatefulContext)}, starting from currValue.
+	 * Without a context, the segments of this path must be constant.
+	 * @throws IllegalStateException if this path has a dynamic segment
+	 */
 	public final Value getValueOrNull( Value currValue )
+	{
+		return getValueOrNull( currValue, null );
+	}
+
+	private Value getValueOrNull( Value currValue, StatefulContext ctx )
 	{
 		for( int i = 0; i < path.length; i++ ) {
 			final Pair< Expression, Expression > pair = path[i];
-			final ValueVector currVector = currValue.children().get( pair.key().evaluate().strValue() );
+			final ValueVector currVector = currValue.getChildrenOrNull( keyAt( ctx, i ) );
 			if ( currVector == null ) {
 				return null;
 			}
@@ -281,7 +350,7 @@ public class VariablePath implements Expression, Cloneable
 					}
 				}
 			} else {
-				final int index = pair.value().evaluate().intValue();
+				final int index = indexAt( ctx, i );
 				if ( currVector.size() <= index ) {
 					return null;
 				}
@@ -295,26 +364,42 @@ public class VariablePath implements Expression, Cloneable
 		return currValue;
 	}
 	
+	public final ValueVector getValueVector( StatefulContext ctx )
+	{
+		return getValueVector( getRootValue( ctx ), ctx );
+	}
+
+	/**
+	 * Like {@link #getValueVector(StatefulContext)}, starting from currValue.
+	 * Without a context, the segments of this path must be constant.
+	 * @throws IllegalStateException if this path has a dynamic segment
+	 */
 	public final ValueVector getValueVector( Value currValue )
+	{
+		return getValueVector( currValue, null );
+	}
+
+	private ValueVector getValueVector( Value currValue, StatefulContext ctx )
 	{
 		ValueVector currVector = null;
 		for( int i = 0; i < path.length; i++ ) {
 			final Pair< Expression, Expression > pair = path[i];
-			currVector = currValue.getChildren( pair.key().evaluate().strValue() );
+			currVector = currValue.getChildren( keyAt( ctx, i ) );
 			if ( (i+1) < path.length ) {
 				if ( pair.value() == null ) {
 					currValue = currVector.get( 0 );
 				} else {
-					currValue = currVector.get( pair.value().evaluate().intValue() );
+					currValue = currVector.get( indexAt( ctx, i ) );
 				}
 			}
 		}
 		return currVector;
 	}
 	
+	@Deprecated
 	public final ValueVector getValueVector()
 	{
-		return getValueVector( getRootValue() );
+		return getValueVector( StatefulContext.currentContext() );
 	}
 	
 	public final void makePointer( StatefulContext ctx, VariablePath rightPath )
@@ -327,7 +412,8 @@ public class VariablePath implements Expression, Cloneable
 
 		for( int i = 0; i < path.length; i++ ) {
 			pair = path[i];
-			keyStr = pair.key().evaluate().strValue();
+			keyStr = keyAt( ctx, i );
+			currValue.markLinked();
 			currVector = currValue.getChildren( keyStr );
 			if ( pair.value() == null ) {
 				if ( (i+1) < path.length ) {
@@ -336,7 +422,7 @@ public class VariablePath implements Expression, Cloneable
 					currValue.children().put( keyStr, ValueVector.createLink( rightPath ) );
 				}
 			} else {
-				index = pair.value().evaluate().intValue();
+				index = indexAt( ctx, i );
 				if ( (i+1) < path.length ) {
 					currValue = currVector.get( index );
 				} else {
@@ -344,6 +430,7 @@ public class VariablePath implements Expression, Cloneable
 				}
 			}
 		}
+		ctx.state().correlationVariablesReplaced();
 	}
 	
 	private Object getValueOrValueVector( StatefulContext ctx )
@@ -355,7 +442,7 @@ public class VariablePath implements Expression, Cloneable
 
 		for( int i = 0; i < path.length; i++ ) {
 			pair = path[i];
-			currVector = currValue.getChildren( pair.key().evaluate().strValue() );
+			currVector = currValue.getChildren( keyAt( ctx, i ) );
 			if ( pair.value() == null ) {
 				if ( (i+1) < path.length ) {
 					currValue = currVector.get( 0 );
@@ -363,7 +450,7 @@ public class VariablePath implements Expression, Cloneable
 					return currVector;
 				}
 			} else {
-				index = pair.value().evaluate().intValue();
+				index = indexAt( ctx, i );
 				if ( (i+1) < path.length ) {
 					currValue = currVector.get( index );
 				} else {
@@ -383,22 +470,17 @@ public class VariablePath implements Expression, Cloneable
 			((Value) myObj).deepCopy( rightPath.getValue( ctx ) );
 		} else {
 			ValueVector myVec = (ValueVector) myObj;
-			ValueVector rightVec = rightPath.getValueVector();
+			ValueVector rightVec = rightPath.getValueVector( ctx );
 			for( int i = 0; i < rightVec.size(); i++ ) {
 				myVec.get( i ).deepCopy( rightVec.get( i ) );
 			}
 		}
 	}
 	
-	// TODO - Remove this
-	public final Value evaluate(StatefulContext ctx)
-	{
-		return evaluate();
-	}
-	
-	public final Value evaluate()
+	@Override
+	public final Value evaluate( StatefulContext ctx )
 	{
-		final Value v = getValueOrNull();
+		final Value v = getValueOrNull( ctx );
 		return ( v == null ) ? Value.UNDEFINED_VALUE : v;
 	}
 }
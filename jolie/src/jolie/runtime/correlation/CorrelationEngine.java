@@ -94,7 +94,7 @@ public abstract class CorrelationEngine implements SessionListener
 			if ( messageValue == null ) {
 				messageValue = Value.create();
 			}
-			pair.sessionPath().getValue( session.state().root() ).assignValue( messageValue );
+			pair.sessionPath().getValue( session ).assignValue( messageValue );
 		}
 	}
 
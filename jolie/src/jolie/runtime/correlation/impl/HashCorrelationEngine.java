@@ -21,16 +21,341 @@
 
 package jolie.runtime.correlation.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import jolie.Interpreter;
+import jolie.StatefulContext;
+import jolie.lang.Constants.ExecutionMode;
+import jolie.net.CommChannel;
+import jolie.net.CommMessage;
+import jolie.net.SessionMessage;
+import jolie.runtime.FaultException;
+import jolie.runtime.Value;
+import jolie.runtime.VariablePath;
+import jolie.runtime.correlation.CorrelationEngine;
+import jolie.runtime.correlation.CorrelationSet;
+import jolie.runtime.correlation.CorrelationSet.CorrelationPair;
 
 /**
- * A hash table based correlation algorithm (stub).
+ * A hash table based correlation algorithm.
+ * Sessions are indexed by the values of their correlation variables,
+ * for each operation of the correlation set they belong to, so that
+ * routing a message costs a single lookup instead of a scan of all
+ * running sessions.
+ *
+ * The correlation variables of a session are tracked by replacing them
+ * with correlation values (see {@link Value#createCSetValue(Value, Runnable)}),
+ * which update the index of their session whenever they are assigned.
+ * Indexed values are keyed by their string representation, with numbers
+ * normalised so that values equal for {@link Value#equals(Object)} (e.g., 1
+ * and 1.0) share their key. A key may index more than one session, and
+ * every candidate is checked against the message before routing, so stale
+ * entries are never used. When correlation variables are aliased or
+ * replaced (see {@link jolie.State#correlationVariablesReplaced()}), their
+ * new content is tracked in turn and the session is re-indexed, so the
+ * index is exact: a message missing it does not correlate with any session.
  * @author Fabrizio Montesi
  */
-public class HashCorrelationEngine extends SimpleCorrelationEngine
+public class HashCorrelationEngine extends CorrelationEngine
 {
+	private static class CorrelationKey
+	{
+		private final String operationName;
+		private final String[] values;
+		private final int hashCode;
+
+		private CorrelationKey( String operationName, String[] values )
+		{
+			this.operationName = operationName;
+			this.values = values;
+			this.hashCode = 31 * operationName.hashCode() + Arrays.hashCode( values );
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals( Object obj )
+		{
+			if ( this == obj ) {
+				return true;
+			}
+			if ( !(obj instanceof CorrelationKey) ) {
+				return false;
+			}
+			final CorrelationKey other = (CorrelationKey) obj;
+			return hashCode == other.hashCode
+				&& operationName.equals( other.operationName )
+				&& Arrays.equals( values, other.values );
+		}
+	}
+
+	private final Set< StatefulContext > sessions = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+	private final Set< StatefulContext > initialisingSessions = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+	private final Map< CorrelationKey, Set< StatefulContext > > index = new ConcurrentHashMap<>();
+	// The keys under which each session is currently indexed
+	private final Map< StatefulContext, List< CorrelationKey > > sessionKeys = new ConcurrentHashMap<>();
+
 	public HashCorrelationEngine( Interpreter interpreter )
 	{
 		super( interpreter );
 	}
+
+	@Override
+	protected boolean routeMessage( CommMessage message, CommChannel channel )
+	{
+		final StatefulContext session = findSession( message );
+		if ( session == null ) {
+			return false;
+		}
+		session.pushMessage( new SessionMessage( message, channel ) );
+		return true;
+	}
+
+	private StatefulContext findSession( CommMessage message )
+	{
+		if ( !initialisingSessions.isEmpty() ) {
+			return anySession( initialisingSessions );
+		}
+
+		final boolean singleExecution = interpreter().executionMode() == ExecutionMode.SINGLE;
+		final CorrelationSet cset = interpreter().getCorrelationSetForOperation( message.operationName() );
+		if ( cset == null || (singleExecution && interpreter().correlationSets().isEmpty()) ) {
+			// It must be a session starter.
+			return singleExecution ? anySession( sessions ) : null;
+		}
+
+		final List< CorrelationPair > pairs = cset.getOperationCorrelationPairs( message.operationName() );
+		final String[] values = new String[ pairs.size() ];
+		int i = 0;
+		for( CorrelationPair pair : pairs ) {
+			final Value messageValue = pair.messagePath().getValueOrNull( message.value() );
+			if ( messageValue == null || !messageValue.isDefined() ) {
+				return null;
+			}
+			values[ i++ ] = keyOf( messageValue );
+		}
+
+		final Set< StatefulContext > candidates = index.get( new CorrelationKey( message.operationName(), values ) );
+		if ( candidates != null ) {
+			for( StatefulContext candidate : candidates ) {
+				if ( correlate( candidate, pairs, message ) ) {
+					return candidate;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the index key of a correlation value. Numbers, and strings
+	 * representing numbers, are keyed by their numeric value.
+	 */
+	private static String keyOf( Value value )
+	{
+		if ( value.isInt() || value.isLong() ) {
+			return Long.toString( value.longValue() );
+		} else if ( value.isDouble() ) {
+			return numberKey( value.doubleValue() );
+		}
+
+		final String s = value.strValue();
+		if ( isNumeric( s ) ) {
+			try {
+				return numberKey( Double.parseDouble( s ) );
+			} catch( NumberFormatException e ) {}
+		}
+		return s;
+	}
+
+	private static String numberKey( double d )
+	{
+		if ( d == Math.rint( d ) && Math.abs( d ) < 1e15 ) {
+			return Long.toString( (long) d );
+		}
+		return Double.toString( d );
+	}
+
+	private static boolean isNumeric( String s )
+	{
+		if ( s.isEmpty() || s.length() > 32 ) {
+			return false;
+		}
+		boolean hasDigit = false;
+		for( int i = 0; i < s.length(); i++ ) {
+			final char c = s.charAt( i );
+			if ( c >= '0' && c <= '9' ) {
+				hasDigit = true;
+			} else if ( c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E' ) {
+				return false;
+			}
+		}
+		return hasDigit;
+	}
+
+	private static StatefulContext anySession( Set< StatefulContext > sessions )
+	{
+		final Iterator< StatefulContext > it = sessions.iterator();
+		return it.hasNext() ? it.next() : null;
+	}
+
+	private static boolean correlate( StatefulContext session, List< CorrelationPair > pairs, CommMessage message )
+	{
+		// Correlation variables may be aliased, and links are resolved in the context of their session
+		return session.evaluateBound( () -> correlateBound( session, pairs, message ) );
+	}
+
+	private static boolean correlateBound( StatefulContext session, List< CorrelationPair > pairs, CommMessage message )
+	{
+		for( CorrelationPair pair : pairs ) {
+			final Value sessionValue = pair.sessionPath().getValueOrNull( session );
+			final Value messageValue = pair.messagePath().getValueOrNull( message.value() );
+			// TODO: Value.equals is type insensitive, fix this with an additional check.
+			if ( sessionValue == null || messageValue == null
+				|| !sessionValue.isDefined() || !messageValue.isDefined()
+				|| !sessionValue.equals( messageValue )
+			) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void onSessionStart( StatefulContext session, Interpreter.SessionStarter starter, CommMessage message )
+	{
+		sessions.add( session );
+		initCorrelationValues( session, starter, message );
+		trackCorrelationValues( session );
+	}
+
+	@Override
+	public void onSingleExecutionSessionStart( StatefulContext session )
+	{
+		sessions.add( session );
+		if ( session.isInitialisingThread() ) {
+			initialisingSessions.add( session );
+		} else {
+			trackCorrelationValues( session );
+		}
+	}
+
+	@Override
+	public void onSessionExecuted( StatefulContext session )
+	{
+		sessions.remove( session );
+		initialisingSessions.remove( session );
+		session.state().setCorrelationListener( null );
+		final List< CorrelationKey > keys = sessionKeys.remove( session );
+		if ( keys != null ) {
+			keys.forEach( key -> removeFromIndex( key, session ) );
+		}
+	}
+
+	@Override
+	public void onSessionError( StatefulContext session, FaultException fault )
+	{
+		onSessionExecuted( session );
+	}
+
+	/**
+	 * Replaces the correlation variables of the session with correlation
+	 * values that keep the index up to date, and indexes the session.
+	 * Variables that are aliased or replaced later on are tracked again.
+	 */
+	private void trackCorrelationValues( final StatefulContext session )
+	{
+		final Runnable listener = () -> updateIndex( session );
+		for( CorrelationSet cset : interpreter().correlationSets() ) {
+			for( VariablePath path : cset.correlationVariablePaths() ) {
+				path.setValue( session, Value.createCSetValue( path.getValue( session ), listener ) );
+			}
+		}
+		session.state().setCorrelationListener( () -> {
+			retrackCorrelationValues( session, listener );
+			updateIndex( session );
+		} );
+		updateIndex( session );
+	}
+
+	private void retrackCorrelationValues( StatefulContext session, Runnable listener )
+	{
+		for( CorrelationSet cset : interpreter().correlationSets() ) {
+			for( VariablePath path : cset.correlationVariablePaths() ) {
+				final Value value = path.getValue( session );
+				if ( !value.isUsedInCorrelation() ) {
+					path.setValue( session, Value.createCSetValue( value, listener ) );
+				}
+			}
+		}
+	}
+
+	private void updateIndex( StatefulContext session )
+	{
+		if ( !sessions.contains( session ) ) {
+			return;
+		}
+
+		sessionKeys.compute( session, ( s, oldKeys ) -> {
+			final List< CorrelationKey > keys = s.evaluateBound( () -> computeKeys( s ) );
+			if ( keys.equals( oldKeys ) ) {
+				return oldKeys;
+			}
+			if ( oldKeys != null ) {
+				oldKeys.forEach( key -> removeFromIndex( key, s ) );
+			}
+			keys.forEach( key -> addToIndex( key, s ) );
+			return keys;
+		} );
+	}
+
+	private void addToIndex( CorrelationKey key, StatefulContext session )
+	{
+		index.compute( key, ( k, candidates ) -> {
+			final Set< StatefulContext > result = ( candidates == null )
+				? Collections.newSetFromMap( new ConcurrentHashMap<>() )
+				: candidates;
+			result.add( session );
+			return result;
+		} );
+	}
+
+	private void removeFromIndex( CorrelationKey key, StatefulContext session )
+	{
+		index.computeIfPresent( key, ( k, candidates ) -> {
+			candidates.remove( session );
+			return candidates.isEmpty() ? null : candidates;
+		} );
+	}
+
+	private List< CorrelationKey > computeKeys( StatefulContext session )
+	{
+		final List< CorrelationKey > keys = new ArrayList<>();
+		for( CorrelationSet cset : interpreter().correlationSets() ) {
+			operationLoop:
+			for( String operationName : cset.correlatingOperations() ) {
+				final List< CorrelationPair > pairs = cset.getOperationCorrelationPairs( operationName );
+				final String[] values = new String[ pairs.size() ];
+				int i = 0;
+				for( CorrelationPair pair : pairs ) {
+					final Value sessionValue = pair.sessionPath().getValueOrNull( session );
+					if ( sessionValue == null || !sessionValue.isDefined() ) {
+						continue operationLoop;
+					}
+					values[ i++ ] = keyOf( sessionValue );
+				}
+				keys.add( new CorrelationKey( operationName, values ) );
+			}
+		}
+		return keys;
+	}
 }
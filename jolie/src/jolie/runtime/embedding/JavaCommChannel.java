@@ -24,12 +24,15 @@ package jolie.runtime.embedding;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import jolie.ExecutionContext;
 import jolie.StatefulContext;
+import jolie.lang.Constants;
 import jolie.net.CommChannel;
 import jolie.net.CommMessage;
 import jolie.net.StatefulMessage;
+import jolie.runtime.FaultException;
 import jolie.runtime.InvalidIdException;
 import jolie.runtime.JavaService;
 
@@ -43,6 +46,8 @@ public class JavaCommChannel extends CommChannel
 {
 	private final JavaService javaService;
 	private final Map< Long, CommMessage > messages = new ConcurrentHashMap<>();
+	// How to wake up the waiter of the response to a request, if not the sender
+	private final Map< Long, Runnable > waiters = new ConcurrentHashMap<>();
 	
 	public JavaCommChannel( JavaService javaService )
 	{
@@ -65,17 +70,67 @@ public class JavaCommChannel extends CommChannel
 	@Override
 	protected void sendImpl( StatefulMessage msg, Function<Void, Void> completionHandler )
 		throws IOException
+	{
+		final Executor executor = msg.context().interpreter().blockingExecutor();
+		if ( executor == null ) {
+			try {
+				callOperation( msg, false );
+			} catch( IOException e ) {
+				waiters.remove( msg.message().id() );
+				throw e;
+			}
+		} else {
+			// The caller is suspended until the operation completes
+			executor.execute( () -> {
+				try {
+					callOperation( msg, true );
+				} catch( IOException e ) {
+					respond( msg, CommMessage.createFaultResponse( msg.message(), new FaultException( Constants.IO_EXCEPTION_FAULT_NAME, e ) ), true );
+				}
+			} );
+		}
+		if (completionHandler != null)
+			completionHandler.apply(null);
+	}
+
+	private void callOperation( StatefulMessage msg, boolean resume )
+		throws IOException
 	{
 		try {
-			final CommMessage response = javaService.callOperation( msg.message() );
-			messages.put( msg.message().id(), response );
-			if (completionHandler != null)
-				completionHandler.apply(null);
+			final CommMessage response = javaService.callOperation( msg.message(), deferred -> respond( msg, deferred, true ) );
+			if ( response != null ) {
+				respond( msg, response, resume );
+			}
 		} catch( IllegalAccessException | InvalidIdException e ) {
 			throw new IOException( e );
 		}
 	}
 
+	private void respond( StatefulMessage msg, CommMessage response, boolean resume )
+	{
+		final Runnable waiter = waiters.remove( msg.message().id() );
+		messages.put( msg.message().id(), response );
+		if ( resume ) {
+			if ( waiter == null ) {
+				msg.context().start();
+			} else {
+				waiter.run();
+			}
+		}
+	}
+
+	@Override
+	public void registerWaiterFor( ExecutionContext ctx, CommMessage request )
+	{
+		waiters.put( request.id(), ctx::start );
+	}
+
+	@Override
+	public void registerWaiterFor( StatefulContext ctx, CommMessage request, Runnable wakeUp )
+	{
+		waiters.put( request.id(), wakeUp );
+	}
+
 	@Override
 	protected CommMessage recvImpl()
 		throws IOException
@@ -24,6 +24,7 @@ package jolie.runtime.expression;
 
 
 import java.util.concurrent.locks.Condition;
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
@@ -53,10 +54,10 @@ public class AndCondition implements Expression
 	 * evaluation returning false, without checking the other conditions.  
 	 * @return true if every condition is satisfied, false otherwise.
 	 */
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
 		for( Expression condition : children ) {
-			if ( condition.evaluate().boolValue() == false ) {
+			if ( condition.evaluate( ctx ).boolValue() == false ) {
 				return Value.create( false );
 			}
 		}
@@ -21,6 +21,7 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
@@ -38,8 +39,8 @@ public class CastDoubleExpression implements Expression
 		return new CastDoubleExpression( expression.cloneExpression( reason ) );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		return Value.create( expression.evaluate().doubleValue() );
+		return Value.create( expression.evaluate( ctx ).doubleValue() );
 	}
 }
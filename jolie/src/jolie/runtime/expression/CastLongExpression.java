@@ -22,6 +22,7 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
@@ -39,8 +40,8 @@ public class CastLongExpression implements Expression
 		return new CastLongExpression( expression.cloneExpression( reason ) );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		return Value.create( expression.evaluate().longValue() );
+		return Value.create( expression.evaluate( ctx ).longValue() );
 	}
 }
@@ -23,6 +23,7 @@
 package jolie.runtime.expression;
 
 import java.util.function.BiPredicate;
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
@@ -53,8 +54,8 @@ public class CompareCondition implements Expression
 				);
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		return Value.create( compareOperator.test( leftExpression.evaluate(), rightExpression.evaluate() ) );
+		return Value.create( compareOperator.test( leftExpression.evaluate( ctx ), rightExpression.evaluate( ctx ) ) );
 	}
 }
@@ -22,13 +22,30 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.lang.Constants;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
 public interface Expression
 {
-	public Value evaluate();
+	/**
+	 * Evaluates this expression in the passed context.
+	 * @param ctx the context whose state this expression refers to
+	 * @return the result of the evaluation
+	 */
+	public Value evaluate( StatefulContext ctx );
+
+	/**
+	 * Evaluates this expression in the context being run by the current thread.
+	 * @return the result of the evaluation
+	 * @deprecated use {@link #evaluate(StatefulContext)}
+	 */
+	@Deprecated
+	public default Value evaluate()
+	{
+		return evaluate( StatefulContext.currentContext() );
+	}
 	public Expression cloneExpression( TransformationReason reason );
 	
 	public class Operand
@@ -22,6 +22,7 @@
 package jolie.runtime.expression;
 
 import java.util.UUID;
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
@@ -44,7 +45,7 @@ public class FreshValueExpression implements Expression
 		return FreshValueExpression.LazyHolder.instance;
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
 		return Value.create( UUID.randomUUID().toString() );
 	}
@@ -22,6 +22,7 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 import jolie.runtime.VariablePath;
@@ -63,13 +64,13 @@ public class InlineTreeExpression implements Expression
 		);
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
 		Value inlineValue = Value.create();
-		inlineValue.assignValue( rootExpression.evaluate() );
+		inlineValue.assignValue( rootExpression.evaluate( ctx ) );
 		
 		for( Pair< VariablePath, Expression > pair : assignments ) {
-			pair.key().getValue( inlineValue ).assignValue( pair.value().evaluate() );
+			pair.key().getValue( inlineValue, ctx ).assignValue( pair.value().evaluate( ctx ) );
 		}
 		
 		return inlineValue;
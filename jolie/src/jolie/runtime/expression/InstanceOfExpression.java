@@ -22,6 +22,7 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 import jolie.runtime.typing.Type;
@@ -47,11 +48,11 @@ public class InstanceOfExpression implements Expression
 		return new InstanceOfExpression( expression, type );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
 		boolean ret = true;
 		try {
-			type.check( expression.evaluate() );
+			type.check( expression.evaluate( ctx ) );
 		} catch( TypeCheckingException e ) {
 			ret = false;
 		}
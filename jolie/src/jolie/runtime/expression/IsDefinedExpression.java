@@ -22,6 +22,7 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 import jolie.runtime.VariablePath;
@@ -40,15 +41,15 @@ public class IsDefinedExpression implements Expression
 		return new IsDefinedExpression( path );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value v = path.getValueOrNull();
+		Value v = path.getValueOrNull( ctx );
 		boolean def = false;
 		if ( v != null ) {
 			if ( v.isDefined() ) {
 				def = true;
 			} else {
-				def = !v.children().isEmpty();
+				def = v.hasChildren();
 			}
 		}
 
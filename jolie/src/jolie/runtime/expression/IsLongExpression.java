@@ -22,6 +22,7 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 import jolie.runtime.VariablePath;
@@ -40,9 +41,9 @@ public class IsLongExpression implements Expression
 		return new IsLongExpression( path );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value value = path.getValueOrNull();
+		Value value = path.getValueOrNull( ctx );
 		return Value.create( value != null && value.isLong() );
 	}
 }
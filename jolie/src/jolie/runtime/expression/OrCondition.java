@@ -23,6 +23,7 @@
 package jolie.runtime.expression;
 
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
@@ -40,10 +41,10 @@ public class OrCondition implements Expression
 		return new OrCondition( children );
 	}
 	
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
 		for( Expression cond : children ) {
-			if ( cond.evaluate().boolValue() ) {
+			if ( cond.evaluate( ctx ).boolValue() ) {
 				return Value.create( true );
 			}
 		}
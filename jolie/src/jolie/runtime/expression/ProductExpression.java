@@ -21,6 +21,7 @@
 
 package jolie.runtime.expression;
 
+import jolie.StatefulContext;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
 
@@ -45,19 +46,19 @@ public class ProductExpression implements Expression
 	}
 	
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		Value val = Value.create( children[0].expression().evaluate() );
+		Value val = Value.create( children[0].expression().evaluate( ctx ) );
 		for( int i = 1; i < children.length; i++ ) {
 			switch( children[i].type() ) {
 			case MULTIPLY:
-				val.multiply( children[i].expression().evaluate() );
+				val.multiply( children[i].expression().evaluate( ctx ) );
 				break;
 			case DIVIDE:
-				val.divide( children[i].expression().evaluate() );
+				val.divide( children[i].expression().evaluate( ctx ) );
 				break;
 			case MODULUS:
-				val.modulo( children[i].expression().evaluate() );
+				val.modulo( children[i].expression().evaluate( ctx ) );
 				break;
 			}
 		}
@@ -23,6 +23,7 @@
 package jolie.runtime.expression;
 
 
+import jolie.StatefulContext;
 import jolie.lang.Constants;
 import jolie.behaviours.TransformationReason;
 import jolie.runtime.Value;
@@ -49,14 +50,14 @@ public final class SumExpression implements Expression
 	}
 	
 	@Override
-	public Value evaluate()
+	public Value evaluate( StatefulContext ctx )
 	{
-		final Value val = Value.create( children[0].expression().evaluate() );
+		final Value val = Value.create( children[0].expression().evaluate( ctx ) );
 		for( int i = 1; i < children.length; i++ ) {
 			if ( children[i].type() == Constants.OperandType.ADD ) {
-				val.add( children[i].expression().evaluate() );
+				val.add( children[i].expression().evaluate( ctx ) );
 			} else {
-				val.subtract( children[i].expression().evaluate() );
+				val.subtract( children[i].expression().evaluate( ctx ) );
 			}
 		}
 		
@@ -170,9 +170,9 @@ class TypeImpl extends Type
 			}
 			
 			// TODO make this more performant
-			for( String childName : value.children().keySet() ) {
-				if ( subTypes.containsKey( childName ) == false ) {
-					throw new TypeCheckingException( "Unexpected child node: " + pathBuilder.toString() + "." + childName );
+			for( Entry< String, ValueVector > child : value.childrenEntries() ) {
+				if ( subTypes.containsKey( child.getKey() ) == false ) {
+					throw new TypeCheckingException( "Unexpected child node: " + pathBuilder.toString() + "." + child.getKey() );
 				}
 			}
 		}
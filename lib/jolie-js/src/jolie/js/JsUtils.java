@@ -22,15 +22,10 @@
 package jolie.js;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.util.Map;
 import jolie.runtime.Value;
-import jolie.runtime.ValueVector;
 import jolie.runtime.typing.Type;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.JSONValue;
-import org.json.simple.parser.ParseException;
 
 public class JsUtils
 {
@@ -41,7 +36,7 @@ public class JsUtils
 	 * introduces a "ROOT_SIGN" named attribute on each mapped Jolie value with
 	 * a root value set.
 	 */
-	private static final String ROOT_SIGN = "$";
+	static final String ROOT_SIGN = "$";
 
 	/**
 	 * Jolie values do not support multi-dimensional arrays as JSON, hence
@@ -51,177 +46,41 @@ public class JsUtils
 	public static final String JSONARRAY_KEY = "_";
 
     // Jolie value -> JSON string
-	private static void appendKeyColon( StringBuilder builder, String key )
-	{
-		builder.append( '"' ).append( key ).append( "\":" );
-	}
-
-	private static String nativeValueToJsonString( Value value ) throws IOException
-	{
-		if ( !value.isDefined() ) {
-			return "null";
-		} else if ( value.isInt() || value.isLong() || value.isBool() || value.isDouble() ) {
-			return value.strValue();
-		} else {
-			return '"' + JSONValue.escape( value.strValue() ) + '"';
-		}
-	}
-
-	private static void valueVectorToJsonString( ValueVector vector, StringBuilder builder, boolean isArray, Type type )
-		throws IOException
-	{
-		if ( isArray || ( type != null && type.cardinality().max() > 1 || vector.size() > 1 ) ) {
-			builder.append( '[' );
-			for( int i = 0; i < vector.size(); i++ ) {
-				valueToJsonString( vector.get( i ), false, type, builder );
-				if ( i < vector.size() - 1 ) {
-					builder.append( ',' );
-				}
-			}
-			builder.append( ']' );
-		} else {
-			valueToJsonString( vector.first(), false, type, builder );
-		}
-	}
-
 	public static void valueToJsonString( Value value, boolean extendedRoot, Type type, StringBuilder builder ) throws IOException
 	{
-		if ( value.hasChildren( JSONARRAY_KEY ) ) {
-			valueVectorToJsonString( value.children().get( JSONARRAY_KEY ), builder, true, null );
-			return;
-		}
-		int size = value.children().size();
-		if ( size == 0 ) {
-			if ( extendedRoot ) {
-				builder.append( '{' );
-				if ( value.isDefined() ) {
-					appendKeyColon( builder, ROOT_SIGN );
-					builder.append( nativeValueToJsonString( value ) );
-				}
-				builder.append( '}' );
-			} else {
-				builder.append( nativeValueToJsonString( value ) );
-			}
-		} else {
-			builder.append( '{' );
-			if ( value.isDefined() ) {
-				appendKeyColon( builder, ROOT_SIGN );
-				builder.append( nativeValueToJsonString( value ) );
-				builder.append( ',' );
-			}
-			int i = 0;
-			for( Map.Entry<String, ValueVector> child : value.children().entrySet() ) {
-				final Type subType = ( type != null ? type.findSubType( child.getKey() ) : null );
-				appendKeyColon( builder, child.getKey() );
-				valueVectorToJsonString( child.getValue(), builder, false, subType );
-				if ( i++ < size - 1 ) {
-					builder.append( ',' );
-				}
-			}
-			builder.append( '}' );
-		}
+		JsonValueWriter.to( builder ).writeValue( value, extendedRoot, type );
 	}
 
 	public static void faultValueToJsonString( Value value, Type type, StringBuilder builder ) throws IOException
 	{
-		builder.append( "{\"error\":{\"message\":\"" );
-		builder.append( value.getFirstChild( "error" ).getFirstChild( "message" ).strValue() );
-		builder.append( "\",\"code\":" );
-		builder.append( value.getFirstChild( "error" ).getFirstChild( "code" ).intValue() );
-		builder.append( ",\"data\":" );
-		valueToJsonString( value.getFirstChild( "error" ).getFirstChild( "data" ), false, type, builder );
-		builder.append( "}}" );
-	}
-
-    // JSON string -> Jolie value
-	private static void getBasicValue( Object obj, Value val )
-	{
-		if ( obj instanceof String ) {
-			val.setValue( (String) obj );
-		} else if ( obj instanceof Double ) {
-			val.setValue( (Double) obj );
-		} else if ( obj instanceof Long ) {
-			long lval = (Long) obj;
-			if ( lval > Integer.MAX_VALUE || lval < Integer.MIN_VALUE ) {
-				val.setValue( lval );
-			} else {
-				val.setValue( (int) lval );
-			}
-		} else if ( obj instanceof Boolean ) {
-			val.setValue( (Boolean) obj );
-		} else if ( obj != null ) {
-			val.setValue( obj.toString() );
-		}
-	}
-
-	private static void jsonObjectToValue( JSONObject obj, Value value, boolean strictEncoding )
-	{
-		Map<String, Object> map = (Map<String, Object>) obj;
-		ValueVector vec;
-		for( Map.Entry<String, Object> entry : map.entrySet() ) {
-			if ( entry.getKey().equals( ROOT_SIGN ) ) {
-				getBasicValue( entry.getValue(), value );
-			} else {
-				vec = jsonObjectToValueVector( entry.getValue(), strictEncoding );
-				value.children().put( entry.getKey(), vec );
-			}
-		}
+		JsonValueWriter.to( builder ).writeFault( value, type );
 	}
 
-	private static ValueVector jsonObjectToValueVector( Object obj, boolean strictEncoding )
+	/**
+	 * Writes value as JSON text encoded in UTF-8 to stream, without building
+	 * the text in memory first.
+	 */
+	public static void valueToJson( Value value, boolean extendedRoot, Type type, OutputStream stream ) throws IOException
 	{
-		ValueVector vec = ValueVector.create();
-		if ( obj instanceof JSONObject ) {
-			Value val = Value.create();
-			jsonObjectToValue( (JSONObject) obj, val, strictEncoding );
-			vec.add( val );
-		} else if ( obj instanceof JSONArray && strictEncoding ) {
-			Value arrayValue = Value.create();
-			vec.add( arrayValue );
-			arrayValue.children().put( JSONARRAY_KEY, jsonArrayToValueVector( (JSONArray) obj, strictEncoding ) );
-		} else if ( obj instanceof JSONArray && !strictEncoding ) {
-			vec = jsonArrayToValueVector( (JSONArray) obj, strictEncoding );
-		} else {
-			Value val = Value.create();
-			getBasicValue( obj, val );
-			vec.add( val );
-		}
-		return vec;
+		final JsonValueWriter writer = JsonValueWriter.toUtf8( stream );
+		writer.writeValue( value, extendedRoot, type );
+		writer.flush();
 	}
 
-	private static ValueVector jsonArrayToValueVector( JSONArray array, boolean strictEncoding )
+	/**
+	 * Writes fault value as a JSON-RPC error encoded in UTF-8 to stream.
+	 */
+	public static void faultValueToJson( Value value, Type type, OutputStream stream ) throws IOException
 	{
-		ValueVector vec = ValueVector.create();
-		for( Object element : array ) {
-			Value value = Value.create();
-			if ( element instanceof JSONArray ) {
-				value.children().put( JSONARRAY_KEY, jsonArrayToValueVector( (JSONArray) element, strictEncoding ) );
-			} else if ( element instanceof JSONObject ) {
-				jsonObjectToValue( (JSONObject) element, value, strictEncoding );
-			} else {
-				getBasicValue( element, value );
-			}
-			vec.add( value );
-		}
-		return vec;
+		final JsonValueWriter writer = JsonValueWriter.toUtf8( stream );
+		writer.writeFault( value, type );
+		writer.flush();
 	}
 
+    // JSON string -> Jolie value
 	public static void parseJsonIntoValue( Reader reader, Value value, boolean strictEncoding )
 		throws IOException
 	{
-		try {
-			Object obj = JSONValue.parseWithException( reader );
-			if ( obj instanceof JSONArray ) {
-				value.children().put( JSONARRAY_KEY, jsonArrayToValueVector( (JSONArray) obj, strictEncoding ) );
-			} else if ( obj instanceof JSONObject ) {
-				jsonObjectToValue( (JSONObject) obj, value, strictEncoding );
-			} else {
-				getBasicValue( obj, value );
-			}
-		} catch( ParseException e ) {
-			throw new IOException( e );
-		} catch( ClassCastException e ) {
-			throw new IOException( e );
-		}
+		new JsonValueReader( reader, strictEncoding ).parse( value );
 	}
 }
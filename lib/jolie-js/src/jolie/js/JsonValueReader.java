@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2026 by agent <agent@local>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package jolie.js;
+
+import java.io.IOException;
+import java.io.Reader;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * Parses a JSON text straight into a Jolie value, reading it in blocks
+ * and creating the value nodes as their JSON counterparts are read.
+ * The mapping is the one described in {@link JsUtils}.
+ * Like the parser used before, trailing commas in objects and arrays are
+ * accepted.
+ */
+final class JsonValueReader
+{
+	private final Reader reader;
+	private final boolean strictEncoding;
+	private final char[] buffer = new char[ 4096 ];
+	private final StringBuilder text = new StringBuilder();
+	private int position = 0;
+	private int limit = 0;
+	// Characters read before the current content of the buffer
+	private long offset = 0;
+
+	JsonValueReader( Reader reader, boolean strictEncoding )
+	{
+		this.reader = reader;
+		this.strictEncoding = strictEncoding;
+	}
+
+	void parse( Value value )
+		throws IOException
+	{
+		readElement( skipWhitespace(), value );
+		if ( skipWhitespace() != -1 ) {
+			throw error( "unexpected content after the JSON value" );
+		}
+	}
+
+	private boolean fill()
+		throws IOException
+	{
+		offset += limit;
+		position = 0;
+		limit = 0;
+		int n;
+		while( (n = reader.read( buffer )) == 0 ) {}
+		if ( n < 0 ) {
+			return false;
+		}
+		limit = n;
+		return true;
+	}
+
+	private int read()
+		throws IOException
+	{
+		if ( position == limit && !fill() ) {
+			return -1;
+		}
+		return buffer[ position++ ];
+	}
+
+	private int peek()
+		throws IOException
+	{
+		if ( position == limit && !fill() ) {
+			return -1;
+		}
+		return buffer[ position ];
+	}
+
+	private int skipWhitespace()
+		throws IOException
+	{
+		int c;
+		do {
+			c = read();
+		} while( c == ' ' || c == '\n' || c == '\r' || c == '\t' );
+		return c;
+	}
+
+	private IOException error( String message )
+	{
+		return new IOException( "Invalid JSON at position " + (offset + position) + ": " + message );
+	}
+
+	// Reads the element starting with c into value
+	private void readElement( int c, Value value )
+		throws IOException
+	{
+		if ( c == '{' ) {
+			readObject( value );
+		} else if ( c == '[' ) {
+			value.children().put( JsUtils.JSONARRAY_KEY, readArray() );
+		} else {
+			readPrimitive( c, value );
+		}
+	}
+
+	private void readObject( Value value )
+		throws IOException
+	{
+		int c = skipWhitespace();
+		while( c != '}' ) {
+			if ( c != '"' ) {
+				throw error( "expected a key or '}'" );
+			}
+			final String key = readString();
+			if ( skipWhitespace() != ':' ) {
+				throw error( "expected ':'" );
+			}
+			c = skipWhitespace();
+			if ( JsUtils.ROOT_SIGN.equals( key ) ) {
+				readRootValue( c, value );
+			} else {
+				value.children().put( key, readMember( c ) );
+			}
+
+			c = skipWhitespace();
+			if ( c == ',' ) {
+				c = skipWhitespace();
+			} else if ( c != '}' ) {
+				throw error( "expected ',' or '}'" );
+			}
+		}
+	}
+
+	private ValueVector readMember( int c )
+		throws IOException
+	{
+		if ( c == '[' && !strictEncoding ) {
+			return readArray();
+		}
+		final ValueVector vector = ValueVector.create();
+		final Value value = Value.create();
+		readElement( c, value );
+		vector.add( value );
+		return vector;
+	}
+
+	// Compound root values are kept as their JSON text
+	private void readRootValue( int c, Value value )
+		throws IOException
+	{
+		if ( c == '{' || c == '[' ) {
+			final Value compound = Value.create();
+			readElement( c, compound );
+			final StringBuilder builder = new StringBuilder();
+			JsUtils.valueToJsonString( compound, false, null, builder );
+			value.setValue( builder.toString() );
+		} else {
+			readPrimitive( c, value );
+		}
+	}
+
+	private ValueVector readArray()
+		throws IOException
+	{
+		final ValueVector vector = ValueVector.create();
+		int c = skipWhitespace();
+		while( c != ']' ) {
+			final Value element = Value.create();
+			readElement( c, element );
+			vector.add( element );
+
+			c = skipWhitespace();
+			if ( c == ',' ) {
+				c = skipWhitespace();
+			} else if ( c != ']' ) {
+				throw error( "expected ',' or ']'" );
+			}
+		}
+		return vector;
+	}
+
+	private void readPrimitive( int c, Value value )
+		throws IOException
+	{
+		switch( c ) {
+			case '"':
+				value.setValue( readString() );
+				break;
+			case 't':
+				readLiteral( "rue" );
+				value.setValue( true );
+				break;
+			case 'f':
+				readLiteral( "alse" );
+				value.setValue( false );
+				break;
+			case 'n':
+				// null leaves the value undefined
+				readLiteral( "ull" );
+				break;
+			case -1:
+				throw error( "unexpected end of input" );
+			default:
+				if ( c == '-' || (c >= '0' && c <= '9') ) {
+					readNumber( (char) c, value );
+				} else {
+					throw error( "unexpected character '" + (char) c + "'" );
+				}
+		}
+	}
+
+	private void readLiteral( String rest )
+		throws IOException
+	{
+		for( int i = 0; i < rest.length(); i++ ) {
+			if ( read() != rest.charAt( i ) ) {
+				throw error( "invalid literal" );
+			}
+		}
+	}
+
+	private void readNumber( char first, Value value )
+		throws IOException
+	{
+		text.setLength( 0 );
+		text.append( first );
+		boolean decimal = false;
+		int c;
+		while( (c = peek()) != -1 ) {
+			if ( c == '.' || c == 'e' || c == 'E' ) {
+				decimal = true;
+			} else if ( !(c >= '0' && c <= '9') && c != '-' && c != '+' ) {
+				break;
+			}
+			text.append( (char) c );
+			position++;
+		}
+
+		final String number = text.toString();
+		try {
+			if ( !decimal ) {
+				try {
+					final long l = Long.parseLong( number );
+					if ( l > Integer.MAX_VALUE || l < Integer.MIN_VALUE ) {
+						value.setValue( l );
+					} else {
+						value.setValue( (int) l );
+					}
+					return;
+				} catch( NumberFormatException e ) {
+					// Too large for a long, read it as a double
+				}
+			}
+			value.setValue( Double.parseDouble( number ) );
+		} catch( NumberFormatException e ) {
+			throw error( "invalid number " + number );
+		}
+	}
+
+	// Reads a string whose opening quote has already been read
+	private String readString()
+		throws IOException
+	{
+		text.setLength( 0 );
+		while( true ) {
+			if ( position == limit && !fill() ) {
+				throw error( "unterminated string" );
+			}
+			final int start = position;
+			while( position < limit && buffer[ position ] != '"' && buffer[ position ] != '\\' ) {
+				position++;
+			}
+			text.append( buffer, start, position - start );
+			if ( position < limit ) {
+				if ( buffer[ position++ ] == '"' ) {
+					return text.toString();
+				}
+				readEscape();
+			}
+		}
+	}
+
+	private void readEscape()
+		throws IOException
+	{
+		final int c = read();
+		switch( c ) {
+			case '"':
+			case '\\':
+			case '/':
+				text.append( (char) c );
+				break;
+			case 'b':
+				text.append( '\b' );
+				break;
+			case 'f':
+				text.append( '\f' );
+				break;
+			case 'n':
+				text.append( '\n' );
+				break;
+			case 'r':
+				text.append( '\r' );
+				break;
+			case 't':
+				text.append( '\t' );
+				break;
+			case 'u':
+				int code = 0;
+				for( int i = 0; i < 4; i++ ) {
+					final int digit = Character.digit( read(), 16 );
+					if ( digit < 0 ) {
+						throw error( "invalid unicode escape" );
+					}
+					code = (code << 4) | digit;
+				}
+				text.append( (char) code );
+				break;
+			default:
+				throw error( "invalid escape sequence" );
+		}
+	}
+}
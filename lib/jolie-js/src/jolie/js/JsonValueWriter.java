@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2026 by agent <agent@local>
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+
+package jolie.js;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+import jolie.runtime.typing.Type;
+
+/**
+ * Writes Jolie values as JSON text, following the mapping described in
+ * {@link JsUtils}. Writers either append to a StringBuilder or encode the
+ * text as UTF-8 straight into an OutputStream, without building
+ * intermediate strings.
+ */
+abstract class JsonValueWriter
+{
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	private static class StringBuilderWriter extends JsonValueWriter
+	{
+		private final StringBuilder builder;
+
+		private StringBuilderWriter( StringBuilder builder )
+		{
+			this.builder = builder;
+		}
+
+		@Override
+		protected void append( char c )
+		{
+			builder.append( c );
+		}
+
+		@Override
+		protected void append( String s )
+		{
+			builder.append( s );
+		}
+
+		@Override
+		void flush()
+		{}
+	}
+
+	private static class Utf8Writer extends JsonValueWriter
+	{
+		private final OutputStream stream;
+		private final byte[] buffer = new byte[ 8192 ];
+		private int length = 0;
+		private char highSurrogate = 0;
+
+		private Utf8Writer( OutputStream stream )
+		{
+			this.stream = stream;
+		}
+
+		private void put( int b )
+			throws IOException
+		{
+			if ( length == buffer.length ) {
+				stream.write( buffer, 0, length );
+				length = 0;
+			}
+			buffer[ length++ ] = (byte) b;
+		}
+
+		@Override
+		protected void append( char c )
+			throws IOException
+		{
+			if ( highSurrogate != 0 ) {
+				final char high = highSurrogate;
+				highSurrogate = 0;
+				if ( Character.isLowSurrogate( c ) ) {
+					final int codePoint = Character.toCodePoint( high, c );
+					put( 0xF0 | (codePoint >> 18) );
+					put( 0x80 | ((codePoint >> 12) & 0x3F) );
+					put( 0x80 | ((codePoint >> 6) & 0x3F) );
+					put( 0x80 | (codePoint & 0x3F) );
+					return;
+				}
+				put( '?' );
+			}
+
+			if ( c < 0x80 ) {
+				put( c );
+			} else if ( c < 0x800 ) {
+				put( 0xC0 | (c >> 6) );
+				put( 0x80 | (c & 0x3F) );
+			} else if ( Character.isHighSurrogate( c ) ) {
+				highSurrogate = c;
+			} else if ( Character.isLowSurrogate( c ) ) {
+				put( '?' );
+			} else {
+				put( 0xE0 | (c >> 12) );
+				put( 0x80 | ((c >> 6) & 0x3F) );
+				put( 0x80 | (c & 0x3F) );
+			}
+		}
+
+		@Override
+		protected void append( String s )
+			throws IOException
+		{
+			for( int i = 0; i < s.length(); i++ ) {
+				append( s.charAt( i ) );
+			}
+		}
+
+		@Override
+		void flush()
+			throws IOException
+		{
+			if ( highSurrogate != 0 ) {
+				highSurrogate = 0;
+				put( '?' );
+			}
+			stream.write( buffer, 0, length );
+			length = 0;
+			stream.flush();
+		}
+	}
+
+	static JsonValueWriter to( StringBuilder builder )
+	{
+		return new StringBuilderWriter( builder );
+	}
+
+	static JsonValueWriter toUtf8( OutputStream stream )
+	{
+		return new Utf8Writer( stream );
+	}
+
+	protected abstract void append( char c )
+		throws IOException;
+
+	protected abstract void append( String s )
+		throws IOException;
+
+	/**
+	 * Writes out any buffered output.
+	 */
+	abstract void flush()
+		throws IOException;
+
+	private void appendKeyColon( String key )
+		throws IOException
+	{
+		append( '"' );
+		append( key );
+		append( "\":" );
+	}
+
+	// Escapes like JSONValue.escape of json-simple, which produced our output before
+	private void appendEscaped( String s )
+		throws IOException
+	{
+		for( int i = 0; i < s.length(); i++ ) {
+			final char c = s.charAt( i );
+			switch( c ) {
+				case '"':
+					append( "\\\"" );
+					break;
+				case '\\':
+					append( "\\\\" );
+					break;
+				case '\b':
+					append( "\\b" );
+					break;
+				case '\f':
+					append( "\\f" );
+					break;
+				case '\n':
+					append( "\\n" );
+					break;
+				case '\r':
+					append( "\\r" );
+					break;
+				case '\t':
+					append( "\\t" );
+					break;
+				case '/':
+					append( "\\/" );
+					break;
+				default:
+					if ( c <= 0x1F || (c >= 0x7F && c <= 0x9F) || (c >= 0x2000 && c <= 0x20FF) ) {
+						append( "\\u" );
+						append( HEX_DIGITS[ (c >> 12) & 0xF ] );
+						append( HEX_DIGITS[ (c >> 8) & 0xF ] );
+						append( HEX_DIGITS[ (c >> 4) & 0xF ] );
+						append( HEX_DIGITS[ c & 0xF ] );
+					} else {
+						append( c );
+					}
+			}
+		}
+	}
+
+	private void writeNativeValue( Value value )
+		throws IOException
+	{
+		if ( !value.isDefined() ) {
+			append( "null" );
+		} else if ( value.isInt() || value.isLong() || value.isBool() || value.isDouble() ) {
+			append( value.strValue() );
+		} else {
+			append( '"' );
+			appendEscaped( value.strValue() );
+			append( '"' );
+		}
+	}
+
+	private void writeValueVector( ValueVector vector, boolean isArray, Type type )
+		throws IOException
+	{
+		if ( isArray || ( type != null && type.cardinality().max() > 1 || vector.size() > 1 ) ) {
+			append( '[' );
+			for( int i = 0; i < vector.size(); i++ ) {
+				writeValue( vector.get( i ), false, type );
+				if ( i < vector.size() - 1 ) {
+					append( ',' );
+				}
+			}
+			append( ']' );
+		} else {
+			writeValue( vector.first(), false, type );
+		}
+	}
+
+	void writeValue( Value value, boolean extendedRoot, Type type )
+		throws IOException
+	{
+		if ( value.hasChildren( JsUtils.JSONARRAY_KEY ) ) {
+			writeValueVector( value.children().get( JsUtils.JSONARRAY_KEY ), true, null );
+			return;
+		}
+		int size = value.children().size();
+		if ( size == 0 ) {
+			if ( extendedRoot ) {
+				append( '{' );
+				if ( value.isDefined() ) {
+					appendKeyColon( JsUtils.ROOT_SIGN );
+					writeNativeValue( value );
+				}
+				append( '}' );
+			} else {
+				writeNativeValue( value );
+			}
+		} else {
+			append( '{' );
+			if ( value.isDefined() ) {
+				appendKeyColon( JsUtils.ROOT_SIGN );
+				writeNativeValue( value );
+				append( ',' );
+			}
+			int i = 0;
+			for( Map.Entry< String, ValueVector > child : value.children().entrySet() ) {
+				final Type subType = ( type != null ? type.findSubType( child.getKey() ) : null );
+				appendKeyColon( child.getKey() );
+				writeValueVector( child.getValue(), false, subType );
+				if ( i++ < size - 1 ) {
+					append( ',' );
+				}
+			}
+			append( '}' );
+		}
+	}
+
+	void writeFault( Value value, Type type )
+		throws IOException
+	{
+		append( "{\"error\":{\"message\":\"" );
+		append( value.getFirstChild( "error" ).getFirstChild( "message" ).strValue() );
+		append( "\",\"code\":" );
+		append( Integer.toString( value.getFirstChild( "error" ).getFirstChild( "code" ).intValue() ) );
+		append( ",\"data\":" );
+		writeValue( value.getFirstChild( "error" ).getFirstChild( "data" ), false, type );
+		append( "}}" );
+	}
+}
@@ -24,8 +24,10 @@ package jolie.net.ssl;
 
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.ssl.SslHandler;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
@@ -33,13 +35,19 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManagerFactory;
 import jolie.StatefulContext;
+import jolie.net.CommCore;
 import jolie.net.protocols.AsyncCommProtocol;
 import jolie.net.protocols.CommProtocol;
 import jolie.runtime.Value;
@@ -54,9 +62,19 @@ import jolie.runtime.VariablePath;
  */
 public class SSLProtocol extends AsyncCommProtocol
 {
+	/*
+	 * Initialised contexts, shared by all the connections using the same
+	 * parameters: creating one reads and parses the key and trust stores,
+	 * and each context holds the caches of the sessions it has negotiated.
+	 */
+	private static final Map< List< Object >, SSLContext > sslContexts = new ConcurrentHashMap<>();
+
 	private final AsyncCommProtocol wrappedProtocol;
+	private final URI uri;
 	private final boolean isClient;
 	private SSLEngine sslEngine;
+	private List< Object > sslSettings = null;
+	private CommCore commCore;
 
 	public SSLProtocol( 
 		VariablePath configurationPath,
@@ -67,27 +85,57 @@ public class SSLProtocol extends AsyncCommProtocol
 	{
 		super( configurationPath );
 		this.wrappedProtocol = (AsyncCommProtocol) wrappedProtocol;
+		this.uri = uri;
 		this.isClient = isClient;
 	}
 
 	@Override
 	public void initialize( StatefulContext ctx )
 	{
+		commCore = ctx.interpreter().commCore();
 		try {
 			init( ctx );
 		} catch( IOException ex ) {
 			Logger.getLogger( SSLProtocol.class.getName() ).log( Level.SEVERE, null, ex );
 		}
+		wrappedProtocol.initialize( ctx );
 	}
 	
 	@Override
 	public void setupPipeline( ChannelPipeline pipeline )
-	{		
-		pipeline.addLast( new SslHandler( this.sslEngine ) );
+	{
+		if ( pipeline.get( SslHandler.class ) == null ) {
+			addSslHandler( pipeline );
+		}
 		wrappedProtocol.setupPipeline( pipeline );
 		wrappedProtocol.setChannel( this.channel() );
 	}
 
+	private void addSslHandler( ChannelPipeline pipeline )
+	{
+		final SslHandler sslHandler = new SslHandler( this.sslEngine );
+		final SSLEngine engine = this.sslEngine;
+		final CommCore core = this.commCore;
+		final long handshakeStart = System.currentTimeMillis();
+		sslHandler.handshakeFuture().addListener( f -> {
+			if ( f.isSuccess() && core != null ) {
+				// A resumed session was created by an earlier handshake
+				core.recordTlsHandshake( engine.getSession().getCreationTime() < handshakeStart );
+			}
+		} );
+		pipeline.addLast( sslHandler );
+	}
+
+	/**
+	 * Connections keep their TLS session, which depends on the SSL
+	 * parameters.
+	 */
+	@Override
+	public Object connectionSettings()
+	{
+		return sslSettings;
+	}
+
 	@Override
 	public String name()
 	{
@@ -122,6 +170,12 @@ public class SSLProtocol extends AsyncCommProtocol
 		return defaultValue;
 	}
 	
+	// Only the name and modification time of store files are part of cache keys
+	private static Long lastModified( String file )
+	{
+		return ( file == null ) ? null : new File( file ).lastModified();
+	}
+
 	public void init( StatefulContext ctx )
 		throws IOException
 	{
@@ -133,9 +187,58 @@ public class SSLProtocol extends AsyncCommProtocol
 			keyStorePassword = getSSLStringParameter( ctx, "keyStorePassword", null ),
 			trustStoreFile = getSSLStringParameter( ctx, "trustStore", System.getProperty( "java.home" ) + "/lib/security/cacerts" ),
 			trustStorePassword = getSSLStringParameter( ctx, "trustStorePassword", null );
+		int sessionCacheSize = getSSLIntegerParameter( ctx, "sessionCacheSize", -1 ),
+			sessionTimeout = getSSLIntegerParameter( ctx, "sessionTimeout", -1 );
 		if ( keyStoreFile == null && isClient == false ) {
 			throw new IOException( "Compulsory parameter needed for server mode: ssl.keyStore" );
 		}
+
+		final List< Object > key = Arrays.asList(
+			protocol,
+			keyStoreFormat, keyStoreFile, lastModified( keyStoreFile ), keyStorePassword,
+			trustStoreFormat, trustStoreFile, lastModified( trustStoreFile ), trustStorePassword,
+			sessionCacheSize, sessionTimeout
+		);
+		sslSettings = key;
+		SSLContext context = sslContexts.get( key );
+		if ( context == null ) {
+			context = createSSLContext(
+				protocol,
+				keyStoreFormat, keyStoreFile, keyStorePassword,
+				trustStoreFormat, trustStoreFile, trustStorePassword,
+				sessionCacheSize, sessionTimeout
+			);
+			final SSLContext other = sslContexts.putIfAbsent( key, context );
+			if ( other != null ) {
+				context = other;
+			}
+		}
+
+		if ( isClient && uri.getHost() != null ) {
+			// Peer information lets the client resume a session with the same server
+			sslEngine = context.createSSLEngine( uri.getHost(), uri.getPort() );
+		} else {
+			sslEngine = context.createSSLEngine();
+		}
+		sslEngine.setEnabledProtocols( new String[] { protocol } );
+		sslEngine.setUseClientMode( isClient );
+		if ( isClient == false ) {
+			if ( getSSLIntegerParameter( ctx, "wantClientAuth", 1 ) > 0 ) {
+				sslEngine.setWantClientAuth( true );
+			} else {
+				sslEngine.setWantClientAuth( false );
+			}
+		}
+	}
+
+	private static SSLContext createSSLContext(
+		String protocol,
+		String keyStoreFormat, String keyStoreFile, String keyStorePassword,
+		String trustStoreFormat, String trustStoreFile, String trustStorePassword,
+		int sessionCacheSize, int sessionTimeout
+	)
+		throws IOException
+	{
 		try {
 			SSLContext context = SSLContext.getInstance( protocol );
 			KeyStore ks = KeyStore.getInstance( keyStoreFormat );
@@ -149,7 +252,9 @@ public class SSLProtocol extends AsyncCommProtocol
 			}
 
 			if ( keyStoreFile != null ) {
-				ks.load( new FileInputStream( keyStoreFile ), passphrase );
+				try( InputStream is = new FileInputStream( keyStoreFile ) ) {
+					ks.load( is, passphrase );
+				}
 			} else {
 				ks.load( null, null );
 			}
@@ -162,23 +267,25 @@ public class SSLProtocol extends AsyncCommProtocol
 			} else {
 				passphrase = null;
 			}
-			ts.load( new FileInputStream( trustStoreFile ), passphrase );
+			try( InputStream is = new FileInputStream( trustStoreFile ) ) {
+				ts.load( is, passphrase );
+			}
 
 			TrustManagerFactory tmf = TrustManagerFactory.getInstance( "SunX509" );
 			tmf.init( ts );
 
 			context.init( kmf.getKeyManagers(), tmf.getTrustManagers(), null );
 
-			sslEngine = context.createSSLEngine();
-			sslEngine.setEnabledProtocols( new String[] { protocol } );
-			sslEngine.setUseClientMode( isClient );
-			if ( isClient == false ) {
-				if ( getSSLIntegerParameter( ctx, "wantClientAuth", 1 ) > 0 ) {
-					sslEngine.setWantClientAuth( true );
-				} else {
-					sslEngine.setWantClientAuth( false );
+			// Sessions are cached by default, these only tune the caches
+			for( SSLSessionContext sessionContext : new SSLSessionContext[] { context.getServerSessionContext(), context.getClientSessionContext() } ) {
+				if ( sessionCacheSize >= 0 ) {
+					sessionContext.setSessionCacheSize( sessionCacheSize );
+				}
+				if ( sessionTimeout >= 0 ) {
+					sessionContext.setSessionTimeout( sessionTimeout );
 				}
 			}
+			return context;
 		} catch ( NoSuchAlgorithmException e ) {
 			throw new IOException( e );
 		} catch ( KeyManagementException e ) {
@@ -191,4 +298,4 @@ public class SSLProtocol extends AsyncCommProtocol
 			throw new IOException( e );
 		}
 	}
-}
\ No newline at end of file
+}
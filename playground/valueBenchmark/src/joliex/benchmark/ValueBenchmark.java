@@ -0,0 +1,125 @@
+/***************************************************************************
+ *   Copyright (C) 2026 by agent <agent@local>                             *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+package joliex.benchmark;
+
+import java.util.function.Supplier;
+import jolie.runtime.Value;
+import jolie.runtime.ValueVector;
+
+/**
+ * Compares memory footprint and throughput of the default and the compact
+ * Value implementations, by building and reading message-like trees.
+ *
+ * Usage: java joliex.benchmark.ValueBenchmark [trees] [records]
+ * See the README for how to build and run it.
+ */
+public class ValueBenchmark
+{
+	private static final int ROUNDS = 10;
+	private static final String[] FIELDS = { "id", "name", "surname", "age", "email", "active" };
+
+	private static Value leaf( Supplier< Value > factory, Object content )
+	{
+		final Value value = factory.get();
+		value.setValue( content );
+		return value;
+	}
+
+	private static Value buildTree( Supplier< Value > factory, int records )
+	{
+		final Value root = factory.get();
+		final ValueVector vec = root.getChildren( "record" );
+		for( int i = 0; i < records; i++ ) {
+			final Value record = factory.get();
+			record.getChildren( FIELDS[ 0 ] ).add( leaf( factory, i ) );
+			record.getChildren( FIELDS[ 1 ] ).add( leaf( factory, "name" + i ) );
+			record.getChildren( FIELDS[ 2 ] ).add( leaf( factory, "surname" + i ) );
+			record.getChildren( FIELDS[ 3 ] ).add( leaf( factory, i % 100 ) );
+			record.getChildren( FIELDS[ 4 ] ).add( leaf( factory, "user" + i + "@example.org" ) );
+			record.getChildren( FIELDS[ 5 ] ).add( leaf( factory, i % 2 == 0 ) );
+			vec.add( record );
+		}
+		return root;
+	}
+
+	private static long readTree( Value root )
+	{
+		long sum = 0;
+		for( Value record : root.getChildren( "record" ) ) {
+			for( String field : FIELDS ) {
+				if ( record.hasChildren( field ) ) {
+					sum += record.getFirstChild( field ).strValue().length();
+				}
+			}
+		}
+		return sum;
+	}
+
+	private static long usedMemory()
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		for( int i = 0; i < 3; i++ ) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static void run( String name, Supplier< Value > factory, int trees, int records )
+	{
+		final Value[] retained = new Value[ trees ];
+		final long before = usedMemory();
+		for( int i = 0; i < trees; i++ ) {
+			retained[ i ] = buildTree( factory, records );
+		}
+		final long bytesPerTree = (usedMemory() - before) / trees;
+
+		long checksum = 0;
+		final long start = System.nanoTime();
+		for( int round = 0; round < ROUNDS; round++ ) {
+			for( int i = 0; i < trees; i++ ) {
+				checksum += readTree( buildTree( factory, records ) );
+			}
+		}
+		final long elapsed = System.nanoTime() - start;
+
+		System.out.println( String.format(
+			"%-8s %10d bytes/tree %10.1f trees/ms (checksum %d, retained %d)",
+			name,
+			bytesPerTree,
+			(double)(ROUNDS * trees) / (elapsed / 1000000.0),
+			checksum,
+			retained.length
+		) );
+	}
+
+	public static void main( String[] args )
+	{
+		final int trees = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1000;
+		final int records = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 100;
+
+		// Warm up both implementations before measuring
+		run( "warmup", Value::create, trees, records );
+		run( "warmup", Value::createCompact, trees, records );
+
+		run( "default", Value::create, trees, records );
+		run( "compact", Value::createCompact, trees, records );
+	}
+}
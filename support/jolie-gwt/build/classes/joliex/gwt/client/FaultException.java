@@ -0,0 +1,55 @@
+/***************************************************************************
+ *   Copyright (C) by Fabrizio Montesi                                     *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package joliex.gwt.client;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+import java.io.Serializable;
+
+public class FaultException extends Exception implements Serializable, IsSerializable
+{
+	private String faultName;
+	private Value value;
+	
+	public FaultException() {}
+	
+	public FaultException( String faultName, Value value )
+	{
+		this.faultName = faultName;
+		this.value = value;
+	}
+	
+	@Override
+	public String getMessage()
+	{
+		return value.strValue();
+	}
+	
+	public Value value()
+	{
+		return value;
+	}
+	
+	public String faultName()
+	{
+		return faultName;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+/***************************************************************************
+ *   Copyright (C) by Fabrizio Montesi                                     *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU Library General Public License as       *
+ *   published by the Free Software Foundation; either version 2 of the    *
+ *   License, or (at your option) any later version.                       *
+ *                                                                         *
+ *   This program is distributed in the hope that it will be useful,       *
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of        *
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the         *
+ *   GNU General Public License for more details.                          *
+ *                                                                         *
+ *   You should have received a copy of the GNU Library General Public     *
+ *   License along with this program; if not, write to the                 *
+ *   Free Software Foundation, Inc.,                                       *
+ *   59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.             *
+ *                                                                         *
+ *   For details about the authors of this software, see the AUTHORS file. *
+ ***************************************************************************/
+
+package joliex.gwt.client;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public abstract class JolieCallback implements AsyncCallback< Value >
+{
+	public final void onFailure( Throwable t )
+	{
+		if ( t instanceof FaultException ) {
+			onFault( (FaultException)t );
+		} else {
+			onError( t );
+		}
+	}
+
+	protected abstract void onFault( FaultException fault );
+	protected abstract void onError( Throwable t );
+	public abstract void onSuccess( Value response );
+}